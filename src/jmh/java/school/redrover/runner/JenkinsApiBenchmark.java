@@ -0,0 +1,47 @@
+package school.redrover.runner;
+
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.json.JsonInput;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JenkinsApiBenchmark {
+
+    // Ответ api/json?tree=jobs[name,jobs[name]], на 100000 заданий около 5 МБ
+    @Param({"1000", "100000"})
+    private int jobCount;
+
+    private String jobsJson;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("{\"_class\":\"hudson.model.Hudson\",\"jobs\":[");
+        for (int i = 0; i < jobCount; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            if (i % 10 == 0) {
+                builder.append("{\"_class\":\"com.cloudbees.hudson.plugins.folder.Folder\",\"name\":\"Folder").append(i)
+                        .append("\",\"jobs\":[{\"_class\":\"hudson.model.FreeStyleProject\",\"name\":\"Nested").append(i).append("\"}]}");
+            } else {
+                builder.append("{\"_class\":\"hudson.model.FreeStyleProject\",\"name\":\"Job").append(i).append("\"}");
+            }
+        }
+        jobsJson = builder.append("]}").toString();
+    }
+
+    @Benchmark
+    public List<JenkinsApi.Job> readJobs() {
+        try (JsonInput input = JenkinsApi.newInput(new StringReader(jobsJson))) {
+            return JenkinsApi.readJobs(input, "");
+        }
+    }
+}
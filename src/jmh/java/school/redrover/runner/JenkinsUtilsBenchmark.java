@@ -0,0 +1,41 @@
+package school.redrover.runner;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Dlocal.admin.username=admin", "-Dlocal.admin.password=admin"})
+public class JenkinsUtilsBenchmark {
+
+    @Param({"10", "200"})
+    private int jobCount;
+
+    private JenkinsStandIn standIn;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        standIn = JenkinsStandIn.start(ProjectUtils.getUserName(), ProjectUtils.getPassword());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        standIn.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpData() {
+        ProjectUtils.setUrlOverride(standIn.getUrl());
+        standIn.addJobs(jobCount);
+    }
+
+    // Очистка через JenkinsStandIn: видна стоимость самого раннера (HTTP-клиент, разбор JSON, параллельные запросы)
+    @Benchmark
+    public void deleteData() {
+        JenkinsUtils.deleteData();
+    }
+}
@@ -0,0 +1,62 @@
+package school.redrover.runner.order;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderUtilsBenchmark {
+
+    private record TestMethod(String name, String[] dependencies) {
+    }
+
+    @Param({"10000", "50000"})
+    private int methodCount;
+
+    // Длина цепочки dependsOnMethods, т.е. размер одной группы
+    @Param({"1", "10", "200"})
+    private int groupSize;
+
+    private List<TestMethod> methodList;
+
+    private OrderUtils.MethodsOrder<TestMethod> methodsOrder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        methodList = new ArrayList<>(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            String[] dependencies = i % groupSize == 0 ? new String[0] : new String[]{"method" + (i - 1)};
+            methodList.add(new TestMethod("method" + i, dependencies));
+        }
+    }
+
+    // Прогон меняет состояние MethodsOrder, поэтому на каждый вызов нужен новый объект
+    @Setup(Level.Invocation)
+    public void setUpMethodsOrder() {
+        methodsOrder = OrderUtils.createMethodsOrder(methodList, TestMethod::name, TestMethod::dependencies);
+    }
+
+    @Benchmark
+    public List<List<TestMethod>> orderMethods() {
+        return OrderUtils.orderMethods(methodList, TestMethod::name, TestMethod::dependencies);
+    }
+
+    // Так же, как BaseTest.beforeMethod/afterMethod проходят по всем тестам класса
+    @Benchmark
+    public void methodsOrderRun(Blackhole blackhole) {
+        for (TestMethod method : methodsOrder.getFlatList()) {
+            blackhole.consume(methodsOrder.isGroupStarted(method));
+            blackhole.consume(methodsOrder.isGroupFinished(method));
+            methodsOrder.markAsInvoked(method);
+            blackhole.consume(methodsOrder.isGroupFinished(method));
+        }
+    }
+}
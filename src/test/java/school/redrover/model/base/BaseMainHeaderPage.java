@@ -23,6 +23,10 @@ public abstract class BaseMainHeaderPage<Self extends BaseMainHeaderPage<?>> ext
     @FindBy(xpath = "//span[contains(text(),'Delete')]")
     private WebElement deleteButton;
 
+    private MainHeaderComponent<Self> headerComponent;
+
+    private MainBreadcrumbComponent<Self> breadcrumbComponent;
+
     public BaseMainHeaderPage(WebDriver driver) {
         super(driver);
     }
@@ -30,13 +34,21 @@ public abstract class BaseMainHeaderPage<Self extends BaseMainHeaderPage<?>> ext
     @Step("Get Header")
     @Override
     public MainHeaderComponent<Self> getHeader() {
-        return new MainHeaderComponent<>( (Self)this);
+        if (headerComponent == null) {
+            headerComponent = new MainHeaderComponent<>((Self) this);
+        }
+
+        return headerComponent;
     }
 
     @Step("Get Breadcrumb")
     @Override
     public MainBreadcrumbComponent<Self> getBreadcrumb() {
-        return new MainBreadcrumbComponent<>( (Self)this);
+        if (breadcrumbComponent == null) {
+            breadcrumbComponent = new MainBreadcrumbComponent<>((Self) this);
+        }
+
+        return breadcrumbComponent;
     }
 
     @Step("Get text from Heading page")
@@ -1,7 +1,10 @@
 package school.redrover.model.base;
 
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
@@ -16,7 +19,7 @@ public abstract class BaseModel {
 
     public BaseModel(WebDriver driver) {
         this.driver = driver;
-        PageFactory.initElements(driver, this);
+        PageElements.init(driver, this);
     }
 
     public WebDriver getDriver() {
@@ -25,7 +28,7 @@ public abstract class BaseModel {
 
     public WebDriverWait getWait2() {
         if (wait2 == null) {
-            wait2 = new WebDriverWait(getDriver(), Duration.ofSeconds(2));
+            wait2 = new SmartWait(getDriver(), Duration.ofSeconds(2));
         }
 
         return wait2;
@@ -33,7 +36,7 @@ public abstract class BaseModel {
 
     public WebDriverWait getWait5() {
         if (wait5 == null) {
-            wait5 = new WebDriverWait(getDriver(), Duration.ofSeconds(5));
+            wait5 = new SmartWait(getDriver(), Duration.ofSeconds(5));
         }
 
         return wait5;
@@ -41,7 +44,7 @@ public abstract class BaseModel {
 
     public WebDriverWait getWait10() {
         if (wait10 == null) {
-            wait10 = new WebDriverWait(getDriver(), Duration.ofSeconds(10));
+            wait10 = new SmartWait(getDriver(), Duration.ofSeconds(10));
         }
 
         return wait10;
@@ -49,10 +52,35 @@ public abstract class BaseModel {
 
     public WebDriverWait getWait15() {
         if (wait15 == null) {
-            wait15 = new WebDriverWait(getDriver(), Duration.ofSeconds(15));
+            wait15 = new SmartWait(getDriver(), Duration.ofSeconds(15));
         }
 
         return wait15;
     }
-}
 
+    // Проверка без ожидания: неявное ожидание выключено, поэтому отсутствующий элемент не стоит 10 секунд
+    public boolean isAbsent(By locator) {
+        return SmartWait.withoutImplicitWait(getDriver(),
+                () -> getDriver().findElements(locator).stream().noneMatch(WebElement::isDisplayed));
+    }
+
+    public boolean waitUntilAbsent(By locator) {
+        if (isAbsent(locator)) {
+            return true;
+        }
+
+        try {
+            return getWait2().until(ExpectedConditions.invisibilityOfElementLocated(locator));
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    public boolean isVisible(By locator, WebDriverWait wait) {
+        try {
+            return wait.until(ExpectedConditions.visibilityOfElementLocated(locator)).isDisplayed();
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+}
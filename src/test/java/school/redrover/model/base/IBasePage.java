@@ -1,5 +1,6 @@
 package school.redrover.model.base;
 
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
@@ -11,4 +12,10 @@ public interface IBasePage {
     WebDriverWait getWait5();
 
     WebDriverWait getWait10();
+
+    boolean isAbsent(By locator);
+
+    boolean waitUntilAbsent(By locator);
+
+    boolean isVisible(By locator, WebDriverWait wait);
 }
@@ -0,0 +1,142 @@
+package school.redrover.model.base;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.pagefactory.Annotations;
+
+import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.List;
+
+final class PageElements {
+
+    private record ElementField(Field field, By by, boolean isList) {
+    }
+
+    // Разбор аннотаций и рефлексия выполняются один раз на класс, а не на каждый new XxxPage(driver)
+    private static final ClassValue<List<ElementField>> fieldCache = new ClassValue<>() {
+        @Override
+        protected List<ElementField> computeValue(Class<?> type) {
+            List<ElementField> fieldList = new ArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                        continue;
+                    }
+
+                    boolean isList = isElementList(field);
+                    if (isList || field.getType() == WebElement.class) {
+                        field.setAccessible(true);
+                        fieldList.add(new ElementField(field, new Annotations(field).buildBy(), isList));
+                    }
+                }
+            }
+
+            return List.copyOf(fieldList);
+        }
+    };
+
+    private PageElements() {
+    }
+
+    private static boolean isElementList(Field field) {
+        if (field.getType() != List.class || !(field.getGenericType() instanceof ParameterizedType type)) {
+            return false;
+        }
+
+        return type.getActualTypeArguments()[0] == WebElement.class
+                && (field.isAnnotationPresent(FindBy.class)
+                || field.isAnnotationPresent(FindBys.class)
+                || field.isAnnotationPresent(FindAll.class));
+    }
+
+    private static final class ElementHandler implements InvocationHandler {
+
+        private final SearchContext context;
+        private final By by;
+        private WebElement element;
+
+        private ElementHandler(SearchContext context, By by) {
+            this.context = context;
+            this.by = by;
+        }
+
+        private WebElement getElement() {
+            if (element == null) {
+                element = context.findElement(by);
+            }
+
+            return element;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("toString".equals(method.getName()) && method.getParameterCount() == 0) {
+                return "Proxy element for: " + by;
+            }
+            if ("getWrappedElement".equals(method.getName())) {
+                return getElement();
+            }
+
+            try {
+                return method.invoke(getElement(), args);
+            } catch (InvocationTargetException e) {
+                if (!(e.getCause() instanceof StaleElementReferenceException)) {
+                    throw e.getCause();
+                }
+            }
+
+            // Страница перезагрузилась - ищем элемент заново и повторяем вызов один раз
+            element = null;
+            try {
+                return method.invoke(getElement(), args);
+            } catch (InvocationTargetException e) {
+                element = null;
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class ElementListHandler implements InvocationHandler {
+
+        private final SearchContext context;
+        private final By by;
+
+        private ElementListHandler(SearchContext context, By by) {
+            this.context = context;
+            this.by = by;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(context.findElements(by), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    static void init(SearchContext context, Object page) {
+        ClassLoader loader = PageElements.class.getClassLoader();
+        for (ElementField elementField : fieldCache.get(page.getClass())) {
+            Object proxy = elementField.isList()
+                    ? Proxy.newProxyInstance(loader, new Class<?>[]{List.class},
+                            new ElementListHandler(context, elementField.by()))
+                    : Proxy.newProxyInstance(loader, new Class<?>[]{WebElement.class, WrapsElement.class, Locatable.class},
+                            new ElementHandler(context, elementField.by()));
+            try {
+                elementField.field().set(page, proxy);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
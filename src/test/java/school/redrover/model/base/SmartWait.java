@@ -0,0 +1,120 @@
+package school.redrover.model.base;
+
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.FluentWait;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import school.redrover.runner.ProjectUtils;
+import school.redrover.runner.StepTimings;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class SmartWait extends WebDriverWait {
+
+    private static final long[] POLLING_MILLIS = {10, 25, 50, 100, 200, 300, 500};
+
+    // Пока pollingEvery не вызван, интервал растет от попытки к попытке
+    private static final Duration ADAPTIVE_POLLING = Duration.ZERO;
+
+    private static final long SLOW_WAIT_MILLIS = 500;
+
+    private static final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
+
+    private static final class AdaptiveSleeper implements Sleeper {
+
+        private int attempt;
+
+        @Override
+        public void sleep(Duration duration) throws InterruptedException {
+            Thread.sleep(duration.equals(ADAPTIVE_POLLING)
+                    ? POLLING_MILLIS[Math.min(attempt++, POLLING_MILLIS.length - 1)]
+                    : duration.toMillis());
+        }
+    }
+
+    private final WebDriver driver;
+    private final AdaptiveSleeper sleeper;
+    private Duration timeout;
+    private boolean isAdaptive;
+
+    public SmartWait(WebDriver driver, Duration timeout) {
+        this(driver, timeout, new AdaptiveSleeper());
+    }
+
+    // Ожидание идет через FluentWait.until, поэтому ignoring, withMessage и pollingEvery работают как обычно
+    private SmartWait(WebDriver driver, Duration timeout, AdaptiveSleeper sleeper) {
+        super(driver, timeout, ADAPTIVE_POLLING, Clock.systemDefaultZone(), sleeper);
+        this.driver = driver;
+        this.sleeper = sleeper;
+        ignoring(StaleElementReferenceException.class);
+    }
+
+    @Override
+    public FluentWait<WebDriver> withTimeout(Duration timeout) {
+        this.timeout = timeout;
+
+        return super.withTimeout(timeout);
+    }
+
+    @Override
+    public FluentWait<WebDriver> pollingEvery(Duration interval) {
+        this.isAdaptive = interval.equals(ADAPTIVE_POLLING);
+
+        return super.pollingEvery(interval);
+    }
+
+    @Override
+    protected RuntimeException timeoutException(String message, Throwable lastException) {
+        return super.timeoutException(
+                isAdaptive ? message.replace("with 0 milliseconds interval", "with adaptive polling") : message,
+                lastException);
+    }
+
+    // Неявное ожидание остается для прямых findElement в страницах, а на время явного отключается:
+    // иначе каждый неудачный поиск внутри явного ожидания ждет еще 10 секунд. Цена - два запроса setTimeouts на ожидание
+    static <V> V withoutImplicitWait(WebDriver driver, Supplier<V> supplier) {
+        boolean isOuter = depth.get() == 0;
+        if (isOuter) {
+            driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        }
+        depth.set(depth.get() + 1);
+
+        try {
+            return supplier.get();
+        } finally {
+            depth.set(depth.get() - 1);
+            if (isOuter) {
+                try {
+                    driver.manage().timeouts().implicitlyWait(ProjectUtils.IMPLICIT_WAIT);
+                } catch (WebDriverException ignore) {
+                }
+            }
+        }
+    }
+
+    @Override
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        final long startTime = System.nanoTime();
+        sleeper.attempt = 0;
+        boolean isSuccess = false;
+        try {
+            V value = withoutImplicitWait(driver, () -> SmartWait.super.until(isTrue));
+            isSuccess = true;
+
+            return value;
+        } finally {
+            StepTimings.addWaitTime(System.nanoTime() - startTime);
+
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            if (!isSuccess || elapsedMillis >= SLOW_WAIT_MILLIS) {
+                ProjectUtils.logf("Wait %s in %d ms of %d ms: %s",
+                        isSuccess ? "succeeded" : "failed", elapsedMillis, timeout.toMillis(), isTrue);
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@ import school.redrover.model.base.BaseComponent;
 import school.redrover.model.base.BaseSubmenuPage;
 import school.redrover.model.base.BaseMainHeaderPage;
 import school.redrover.model.base.BasePage;
+import school.redrover.runner.DomReader;
 
 import java.time.Duration;
 import java.util.ArrayList;
@@ -132,12 +133,7 @@ public class MainBreadcrumbComponent<Page extends BasePage<?, ?>> extends BaseCo
 
     @Step("Get the drop-down menu list")
     public List<String> getMenuList() {
-        List<String> menuList = new ArrayList<>();
-        for (WebElement el : dropDownMenu) {
-            menuList.add(el.getAttribute("innerText"));
-        }
-
-        return menuList;
+        return new ArrayList<>(DomReader.getAttributes(dropDownMenu, "innerText"));
     }
 
     @Step("Click the 'OK' button for the pop-up")
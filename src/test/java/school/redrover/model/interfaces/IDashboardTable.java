@@ -13,7 +13,7 @@ import school.redrover.model.base.IBasePage;
 import school.redrover.model.base.baseConfig.BaseConfigPage;
 import school.redrover.model.builds.*;
 import school.redrover.model.externalPages.GitHubTestRepo;
-import school.redrover.runner.TestUtils;
+import school.redrover.runner.DomReader;
 
 import java.util.List;
 
@@ -44,12 +44,8 @@ public interface IDashboardTable <Self extends BaseMainHeaderPage<?>> extends IB
     }
 
     default List<String> getJobList() {
-        List<WebElement> jobList = getDriver().findElements(By.cssSelector(".jenkins-table__link"));
-
-        return jobList
-                .stream()
-                .map(WebElement::getText)
-                .toList();
+        return DomReader.getTexts(getWait5().until(
+                ExpectedConditions.presenceOfAllElementsLocatedBy(By.cssSelector(".jenkins-table__link"))));
     }
 
     private WebElement getProjectStatusTable() {
@@ -96,14 +92,11 @@ public interface IDashboardTable <Self extends BaseMainHeaderPage<?>> extends IB
                 .findElement(By.xpath(String.format("//a[@href='job/%s/']", jobName.replaceAll(" ", "%20")))))).isDisplayed();
     }
 
-    default boolean jobIsDisplayedF(String viewName) {
-        try {
+    // Папка открывается кликом без ожидания: ждем перехода на ее страницу, а ссылку проверяем без неявного ожидания
+    default boolean jobIsDisplayedF(String jobName) {
+        getWait5().until(ExpectedConditions.urlContains("/job/"));
 
-            return getDriver().findElement(By.linkText(viewName)).isDisplayed();
-        } catch (Exception e) {
-
-            return false;
-        }
+        return !isAbsent(By.linkText(jobName));
     }
 
     default String getJobName(String projectName) {
@@ -149,8 +142,9 @@ public interface IDashboardTable <Self extends BaseMainHeaderPage<?>> extends IB
     default List<String> getListOfProjectMenuItems(String jobName) {
         openJobDropDownMenu(jobName);
 
-        return TestUtils.getTexts(getDriver().findElements(
-                By.xpath("//div[@id = 'breadcrumb-menu' and @class = 'yui-module yui-overlay yuimenu visible']//li/a/span")));
+        // Меню YUI строится после нажатия, поэтому пункты нужно дождаться, а не читать сразу
+        return DomReader.getTexts(getWait5().until(ExpectedConditions.presenceOfAllElementsLocatedBy(
+                By.xpath("//div[@id = 'breadcrumb-menu' and @class = 'yui-module yui-overlay yuimenu visible']//li/a/span"))));
     }
 
     default Self clickJobDropdownMenuBuildNow(String jobName) {
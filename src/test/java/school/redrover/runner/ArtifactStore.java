@@ -0,0 +1,100 @@
+package school.redrover.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+final class ArtifactStore {
+
+    // Файлы лежат по sha256 содержимого, одинаковые снимки хранятся один раз,
+    // а index.tsv связывает запуск теста с его файлами
+    static final Path STORE_PATH = Paths.get("screenshots");
+    private static final Path OBJECTS_PATH = STORE_PATH.resolve("objects");
+    private static final Path INDEX_PATH = STORE_PATH.resolve("index.tsv");
+
+    private static final long RUN_ID = System.currentTimeMillis();
+
+    private static final Map<String, AtomicInteger> invocationMap = new ConcurrentHashMap<>();
+    private static final Set<Path> storedSet = ConcurrentHashMap.newKeySet();
+
+    private ArtifactStore() {
+    }
+
+    static String nextInvocationId(String className, String methodName) {
+        String testName = className + "." + methodName;
+
+        return String.format("%d/%s#%d", RUN_ID, testName,
+                invocationMap.computeIfAbsent(testName, key -> new AtomicInteger()).incrementAndGet());
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream)) {
+            gzipStream.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static void index(String invocationId, String kind, Path object, long size, boolean isNew) throws IOException {
+        String line = String.join("\t", String.valueOf(RUN_ID), invocationId, kind,
+                STORE_PATH.relativize(object).toString().replace('\\', '/'), String.valueOf(size), isNew ? "new" : "dedup") + "\n";
+
+        synchronized (ArtifactStore.class) {
+            Files.createDirectories(STORE_PATH);
+            Files.writeString(INDEX_PATH, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private static void write(Path object, String hash, byte[] bytes) throws IOException {
+        Files.createDirectories(object.getParent());
+        Path temp = Files.createTempFile(object.getParent(), hash, ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, object, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static Path put(String invocationId, String kind, byte[] bytes, String extension, boolean compress) throws IOException {
+        String hash = sha256(bytes);
+        Path object = OBJECTS_PATH.resolve(hash.substring(0, 2)).resolve(hash + "." + extension + (compress ? ".gz" : ""));
+
+        boolean isNew = storedSet.add(object) && Files.notExists(object);
+        if (isNew) {
+            try {
+                write(object, hash, compress ? gzip(bytes) : bytes);
+            } catch (FileAlreadyExistsException e) {
+                isNew = false;
+            } catch (IOException | RuntimeException e) {
+                // Файл не записан: следующий такой же снимок должен записать его, а не сослаться на отсутствующий
+                storedSet.remove(object);
+                throw e;
+            }
+        }
+        index(invocationId, kind, object, bytes.length, isNew);
+
+        return object;
+    }
+}
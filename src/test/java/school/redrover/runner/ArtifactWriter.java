@@ -0,0 +1,94 @@
+package school.redrover.runner;
+
+import io.qameta.allure.Allure;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+final class ArtifactWriter {
+
+    // На потоке теста только забираем байты из браузера, запись на диск и в Allure идет в фоне
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "artifact-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final List<Future<?>> futureList = new CopyOnWriteArrayList<>();
+
+    private ArtifactWriter() {
+    }
+
+    // Путь как в screenshots/index.tsv, относительно папки артефактов
+    private static String toStorePath(Path path) {
+        Path relativePath = ArtifactStore.STORE_PATH.relativize(path);
+
+        return StreamSupport.stream(relativePath.spliterator(), false)
+                .map(Path::toString)
+                .collect(Collectors.joining("/"));
+    }
+
+    static void capture(WebDriver driver, String methodName, String className) {
+        long startTime = System.currentTimeMillis();
+
+        byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        String dom = String.valueOf(((JavascriptExecutor) driver).executeScript("return document.body.innerHTML;"));
+
+        String invocationId = ArtifactStore.nextInvocationId(className, methodName);
+
+        // Вложения регистрируются в текущем шаге Allure, поэтому только на потоке теста.
+        // Файлы хранилища в отчет не копируются, ссылки на них из отчета не открылись бы: снимок и DOM вкладываются сами
+        String screenshotSource = Allure.getLifecycle().prepareAttachment("Page state: ", "image/png", "png");
+        String domSource = Allure.getLifecycle().prepareAttachment("Page DOM", "text/html", "html");
+        String indexSource = Allure.getLifecycle().prepareAttachment("Page state index", "text/tab-separated-values", "tsv");
+
+        futureList.add(executor.submit(() -> {
+            try {
+                byte[] domBytes = dom.getBytes(StandardCharsets.UTF_8);
+                Allure.getLifecycle().writeAttachment(screenshotSource, new ByteArrayInputStream(screenshot));
+                Allure.getLifecycle().writeAttachment(domSource, new ByteArrayInputStream(domBytes));
+
+                Path screenshotPath = ArtifactStore.put(invocationId, "screenshot", screenshot, "png", false);
+                Path domPath = ArtifactStore.put(invocationId, "dom", domBytes, "html", true);
+                Allure.getLifecycle().writeAttachment(indexSource, new ByteArrayInputStream(String.format(
+                        "invocation\tkind\tfile%n%1$s\tscreenshot\t%2$s%n%1$s\tdom\t%3$s%n",
+                        invocationId, toStorePath(screenshotPath), toStorePath(domPath)).getBytes(StandardCharsets.UTF_8)));
+
+                ProjectUtils.logf("Page state of %s is saved: %s, %s", invocationId, screenshotPath, domPath);
+            } catch (Exception e) {
+                ProjectUtils.log("Couldn't save the page state because of exception: " + e.getMessage());
+            }
+        }));
+
+        ProjectUtils.logf("Page state captured in %d ms", System.currentTimeMillis() - startTime);
+    }
+
+    static void flush() {
+        long startTime = System.currentTimeMillis();
+        int count = futureList.size();
+        for (Future<?> future : futureList) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                ProjectUtils.log("Couldn't save the page state: " + e.getCause());
+            }
+        }
+        futureList.clear();
+
+        if (count > 0) {
+            ProjectUtils.logf("%d page states saved, waited %d ms", count, System.currentTimeMillis() - startTime);
+        }
+    }
+}
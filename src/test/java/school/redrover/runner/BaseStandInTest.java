@@ -0,0 +1,43 @@
+package school.redrover.runner;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+
+// Общая обвязка тестов раннера: своя заглушка Jenkins на класс, запросы потока идут на нее
+abstract class BaseStandInTest {
+
+    private JenkinsStandIn standIn;
+
+    protected JenkinsStandIn getStandIn() {
+        return standIn;
+    }
+
+    @BeforeClass
+    protected void beforeClass() {
+        // Без local.properties настройки берутся из системных свойств
+        System.setProperty("local.admin.username", System.getProperty("local.admin.username", "admin"));
+        System.setProperty("local.admin.password", System.getProperty("local.admin.password", "admin"));
+
+        standIn = JenkinsStandIn.start(ProjectUtils.getUserName(), ProjectUtils.getPassword());
+    }
+
+    // Сессия и метрики заглушки не должны остаться потоку и отчету после этого класса
+    @AfterClass(alwaysRun = true)
+    protected void afterClass() {
+        JenkinsUtils.resetSession();
+        HttpMetrics.reset();
+        standIn.close();
+    }
+
+    @BeforeMethod
+    protected void beforeMethod() {
+        ProjectUtils.setUrlOverride(standIn.getUrl());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    protected void afterMethod() {
+        ProjectUtils.setUrlOverride(null);
+    }
+}
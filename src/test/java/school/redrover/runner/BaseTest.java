@@ -1,29 +1,26 @@
 package school.redrover.runner;
 
-import io.qameta.allure.Allure;
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.WebDriver;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
 import school.redrover.runner.order.OrderForTests;
 import school.redrover.runner.order.OrderUtils;
+import school.redrover.runner.order.ShardForTests;
 
-import java.io.File;
-import java.io.IOException;
 import java.lang.reflect.Method;
-import java.time.Duration;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 
-@Listeners({FilterForTests.class, OrderForTests.class})
+@Listeners({FilterForTests.class, ShardForTests.class, OrderForTests.class})
 public abstract class BaseTest {
 
-    private WebDriver driver;
+    private static final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
 
     private OrderUtils.MethodsOrder<Method> methodsOrder;
 
     @BeforeClass
     protected void beforeClass() {
+        ProjectUtils.leaseWorker();
         methodsOrder = OrderUtils.createMethodsOrder(
                 Arrays.stream(this.getClass().getMethods())
                         .filter(m -> m.getAnnotation(Test.class) != null && m.getAnnotation(Ignore.class) == null)
@@ -33,23 +30,28 @@ public abstract class BaseTest {
     }
 
     @BeforeMethod
-    @Parameters("browserName")
-    protected void beforeMethod(Method method, @Optional("chrome") String browserName) {
+    @Parameters({"browserName", "browserProfile"})
+    protected void beforeMethod(Method method, @Optional("chrome") String browserName, @Optional("default") String browserProfile) {
         ProjectUtils.logf("Run %s.%s", this.getClass().getName(), method.getName());
+        if (ProjectUtils.isTraceCommands()) {
+            CommandTracer.startTest(this.getClass().getSimpleName() + "." + method.getName());
+        }
+        long startTime = System.currentTimeMillis();
         try {
             if (!methodsOrder.isGroupStarted(method) || methodsOrder.isGroupFinished(method)) {
                 clearData();
-                startDriver(browserName);
-                getWeb();
+                startDriver(browserName, browserProfile);
                 loginWeb();
             } else {
                 getWeb();
             }
         } catch (Exception e) {
-            closeDriver();
+            closeDriver("setup failed");
             throw new RuntimeException(e);
         } finally {
             methodsOrder.markAsInvoked(method);
+            DurationStore.record(this.getClass().getName(), method.getName(), DurationStore.Phase.SETUP,
+                    System.currentTimeMillis() - startTime);
         }
     }
 
@@ -60,69 +62,76 @@ public abstract class BaseTest {
 
     protected void loginWeb() {
         ProjectUtils.log("Login");
-        JenkinsUtils.login(driver);
+        JenkinsUtils.login(getDriver());
     }
 
     protected void getWeb() {
         ProjectUtils.log("Get web page");
-        ProjectUtils.get(driver);
+        ProjectUtils.get(getDriver());
     }
 
-    protected void startDriver(String browserName) {
-        ProjectUtils.log("Browser open");
-
-        int count = 0;
-        do {
-            try {
-                Thread.sleep(500);
-                driver = ProjectUtils.createDriver(browserName);
-            } catch (Exception e) {
-                if (++count >= 3) {
-                    throw new RuntimeException(e);
-                }
-            }
-        } while (driver == null);
-
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+    protected void startDriver(String browserName, String browserProfile) {
+        driver.set(DriverPool.lease(browserName, BrowserProfile.of(browserProfile)));
     }
 
     protected void stopDriver() {
-        try {
-            JenkinsUtils.logout(driver);
-        } catch (Exception ignore) {
+        if (getDriver() != null) {
+            DriverPool.release(getDriver());
+            driver.remove();
         }
-
-        closeDriver();
     }
 
-    protected void closeDriver() {
-        if (driver != null) {
-            driver.quit();
-            driver = null;
-            ProjectUtils.log("Browser closed");
+    protected void closeDriver(String reason) {
+        if (getDriver() != null) {
+            DriverPool.evict(getDriver(), reason);
+            driver.remove();
         }
     }
 
     @AfterMethod
     protected void afterMethod(Method method, ITestResult testResult) {
+        long startTime = System.currentTimeMillis();
         if (!testResult.isSuccess() && ProjectUtils.isServerRun()) {
-           File file = ProjectUtils.takeScreenshot(driver, method.getName(), this.getClass().getName());
             try {
-                Allure.addAttachment("Page state: ", FileUtils.openInputStream(file));
-            } catch (IOException e) {
+                ArtifactWriter.capture(getDriver(), method.getName(), this.getClass().getName());
+            } catch (Exception e) {
                 ProjectUtils.log("Couldn't make a screenshot because of exception: " + e.getMessage());
             }
-            ProjectUtils.captureDOM(driver, method.getName(), this.getClass().getName());
         }
 
-        if (!testResult.isSuccess() || methodsOrder.isGroupFinished(method)) {
+        // После упавшего теста в браузере могут остаться alert, окна или зависшая вкладка: в пул он не возвращается
+        if (!testResult.isSuccess()) {
+            closeDriver("test " + method.getName() + " failed");
+        } else if (methodsOrder.isGroupFinished(method)) {
             stopDriver();
         }
 
-        ProjectUtils.logf("Execution time is %o sec\n\n", (testResult.getEndMillis() - testResult.getStartMillis()) / 1000);
+        CommandTracer.finishTest();
+
+        long executionTime = testResult.getEndMillis() - testResult.getStartMillis();
+        DurationStore.record(this.getClass().getName(), method.getName(), DurationStore.Phase.TEST, executionTime);
+        DurationStore.record(this.getClass().getName(), method.getName(), DurationStore.Phase.TEARDOWN,
+                System.currentTimeMillis() - startTime);
+
+        ProjectUtils.logf("Execution time is %.3f sec\n\n", executionTime / 1000.0);
+    }
+
+    @AfterClass(alwaysRun = true)
+    protected void afterClass() {
+        JenkinsUtils.resetSession();
+        ProjectUtils.releaseWorker();
+    }
+
+    @AfterSuite(alwaysRun = true)
+    protected void afterSuite() {
+        DriverPool.shutdown();
+        ArtifactWriter.flush();
+        StepTimings.writeReport();
+        PageLoadStats.writeReport();
+        HttpMetrics.writeReport();
     }
 
     protected WebDriver getDriver() {
-        return driver;
+        return driver.get();
     }
 }
@@ -0,0 +1,72 @@
+package school.redrover.runner;
+
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+enum BrowserProfile {
+
+    DEFAULT,
+
+    // Без картинок, шрифтов, расширений и фоновых запросов; внешние сайты не загружаются совсем
+    PERFORMANCE {
+        @Override
+        void apply(ChromeOptions options, List<String> blockedHostList) {
+            options.addArguments(
+                    "--headless=new",
+                    "--blink-settings=imagesEnabled=false",
+                    "--disable-remote-fonts",
+                    "--disable-extensions",
+                    "--disable-background-networking",
+                    "--disable-component-update",
+                    "--disable-sync",
+                    "--no-first-run");
+            if (!blockedHostList.isEmpty()) {
+                options.addArguments("--host-resolver-rules=" + blockedHostList.stream()
+                        .map(host -> String.format("MAP %1$s ~NOTFOUND, MAP *.%1$s ~NOTFOUND", host))
+                        .collect(Collectors.joining(", ")));
+            }
+            options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+        }
+
+        @Override
+        void apply(FirefoxOptions options, List<String> blockedHostList) {
+            options.addPreference("permissions.default.image", 2);
+            options.addPreference("gfx.downloadable_fonts.enabled", false);
+            options.addPreference("browser.display.use_document_fonts", 0);
+            options.addPreference("extensions.update.enabled", false);
+            options.addPreference("app.update.auto", false);
+            options.addPreference("browser.safebrowsing.malware.enabled", false);
+            options.addPreference("browser.safebrowsing.phishing.enabled", false);
+            options.addPreference("network.prefetch-next", false);
+            options.addPreference("network.dns.disablePrefetch", true);
+            if (!blockedHostList.isEmpty()) {
+                // У Firefox нет host-resolver-rules, поэтому запросы к этим хостам уходят в несуществующий прокси
+                options.addPreference("network.proxy.type", 2);
+                options.addPreference("network.proxy.autoconfig_url", "data:text/plain,function FindProxyForURL(url, host) { "
+                        + blockedHostList.stream()
+                        .map(host -> String.format("if (host == '%1$s' || shExpMatch(host, '*.%1$s')) return 'PROXY 127.0.0.1:9'; ", host))
+                        .collect(Collectors.joining())
+                        + "return 'DIRECT'; }");
+            }
+            options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+        }
+    };
+
+    void apply(ChromeOptions options, List<String> blockedHostList) {
+    }
+
+    void apply(FirefoxOptions options, List<String> blockedHostList) {
+    }
+
+    static BrowserProfile of(String name) {
+        return Arrays.stream(values())
+                .filter(profile -> profile.name().equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown browser profile: " + name));
+    }
+}
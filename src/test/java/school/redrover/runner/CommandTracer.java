@@ -0,0 +1,107 @@
+package school.redrover.runner;
+
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+final class CommandTracer implements WebDriverListener {
+
+    private static final Path TRACE_PATH = Paths.get("target", "traces");
+
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+
+    private static final class TestTrace {
+        private final String testName;
+        private final Map<String, long[]> frameMap = new TreeMap<>();
+
+        private TestTrace(String testName) {
+            this.testName = testName;
+        }
+    }
+
+    private static final ThreadLocal<TestTrace> currentTrace = new ThreadLocal<>();
+
+    private static final ThreadLocal<Deque<Long>> startStack = ThreadLocal.withInitial(ArrayDeque::new);
+
+    static void startTest(String testName) {
+        currentTrace.set(new TestTrace(testName));
+    }
+
+    // Формат "свернутых стеков" (folded stacks) читается flamegraph.pl, speedscope и другими инструментами
+    static void finishTest() {
+        TestTrace trace = currentTrace.get();
+        currentTrace.remove();
+        if (trace == null || trace.frameMap.isEmpty()) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(TRACE_PATH);
+            Files.write(TRACE_PATH.resolve(trace.testName + ".folded"),
+                    trace.frameMap.entrySet().stream()
+                            .map(entry -> entry.getKey() + " " + entry.getValue()[1])
+                            .collect(Collectors.toList()),
+                    StandardCharsets.UTF_8);
+            Files.write(TRACE_PATH.resolve(trace.testName + ".calls.folded"),
+                    trace.frameMap.entrySet().stream()
+                            .map(entry -> entry.getKey() + " " + entry.getValue()[0])
+                            .collect(Collectors.toList()),
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            ProjectUtils.log("Couldn't write command trace: " + e.getMessage());
+        }
+    }
+
+    private static String getPageObjectFrame() {
+        return stackWalker.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("school.redrover.model.")
+                        && !frame.getClassName().endsWith(".BaseModel")
+                        && !frame.getClassName().endsWith(".SmartWait"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1) + "." + frame.getMethodName())
+                .orElse("test"));
+    }
+
+    private static void record(Method method) {
+        Deque<Long> stack = startStack.get();
+        if (stack.isEmpty()) {
+            return;
+        }
+        long elapsedMicros = (System.nanoTime() - stack.pop()) / 1000;
+
+        TestTrace trace = currentTrace.get();
+        if (trace != null) {
+            String frame = String.join(";", trace.testName, getPageObjectFrame(),
+                    method.getDeclaringClass().getSimpleName() + "." + method.getName());
+            long[] value = trace.frameMap.computeIfAbsent(frame, key -> new long[2]);
+            value[0]++;
+            value[1] += elapsedMicros;
+        }
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        startStack.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        record(method);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        record(method);
+    }
+}
@@ -0,0 +1,75 @@
+package school.redrover.runner;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+
+import java.util.*;
+
+public final class DomReader {
+
+    public record ElementData(String text, boolean displayed, Map<String, String> attributes) {
+
+        public String getAttribute(String name) {
+            return attributes.get(name);
+        }
+    }
+
+    // Текст как у WebElement.getText(): у невидимого элемента он пустой
+    private static final String READ_SCRIPT = """
+            var elements = arguments[0], names = arguments[1];
+            return elements.map(function (el) {
+                var style = window.getComputedStyle(el);
+                var displayed = !!(el.offsetWidth || el.offsetHeight || el.getClientRects().length)
+                        && style.visibility !== 'hidden';
+                var attributes = {};
+                names.forEach(function (name) {
+                    var value = name in el && typeof el[name] !== 'function' ? el[name] : el.getAttribute(name);
+                    attributes[name] = value === null || value === undefined ? null : String(value);
+                });
+                return {
+                    text: displayed ? (el.innerText || '').replace(/\\u00a0/g, ' ').trim() : '',
+                    displayed: displayed,
+                    attributes: attributes
+                };
+            });
+            """;
+
+    private DomReader() {
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ElementData> execute(WebDriver driver, List<WebElement> elements, String... attributes) {
+        List<Map<String, Object>> resultList = (List<Map<String, Object>>) ((JavascriptExecutor) driver)
+                .executeScript(READ_SCRIPT, elements, Arrays.asList(attributes));
+
+        List<ElementData> dataList = new ArrayList<>(resultList.size());
+        for (Map<String, Object> result : resultList) {
+            Map<String, String> attributeMap = new LinkedHashMap<>();
+            ((Map<String, Object>) result.get("attributes"))
+                    .forEach((name, value) -> attributeMap.put(name, value == null ? null : value.toString()));
+
+            dataList.add(new ElementData((String) result.get("text"), (Boolean) result.get("displayed"), attributeMap));
+        }
+
+        return dataList;
+    }
+
+    public static List<ElementData> read(List<WebElement> elements, String... attributes) {
+        List<WebElement> elementList = new ArrayList<>(elements);
+        if (elementList.isEmpty()) {
+            return List.of();
+        }
+
+        return execute(((WrapsDriver) elementList.get(0)).getWrappedDriver(), elementList, attributes);
+    }
+
+    public static List<String> getTexts(List<WebElement> elements) {
+        return read(elements).stream().map(ElementData::text).toList();
+    }
+
+    public static List<String> getAttributes(List<WebElement> elements, String name) {
+        return read(elements, name).stream().map(data -> data.getAttribute(name)).toList();
+    }
+}
@@ -0,0 +1,182 @@
+package school.redrover.runner;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+final class DriverPool {
+
+    private static final class PooledDriver {
+        private final String browserName;
+        private final BrowserProfile profile;
+        private final WebDriver driver;
+        private int uses;
+
+        private PooledDriver(String browserName, BrowserProfile profile, WebDriver driver) {
+            this.browserName = browserName;
+            this.profile = profile;
+            this.driver = driver;
+        }
+
+        private String getKey() {
+            return getKey(browserName, profile);
+        }
+
+        private static String getKey(String browserName, BrowserProfile profile) {
+            return browserName + "/" + profile.name().toLowerCase();
+        }
+    }
+
+    private static final Map<String, Deque<PooledDriver>> idleMap = new HashMap<>();
+    private static final Map<WebDriver, PooledDriver> leasedMap = new HashMap<>();
+
+    private DriverPool() {
+    }
+
+    private static PooledDriver createDriver(String browserName, BrowserProfile profile) {
+        int count = 0;
+        while (true) {
+            try {
+                WebDriver driver = ProjectUtils.createDriver(browserName, profile);
+                driver.manage().timeouts().implicitlyWait(ProjectUtils.IMPLICIT_WAIT);
+
+                return new PooledDriver(browserName, profile, driver);
+            } catch (Exception e) {
+                if (++count >= 3) {
+                    throw new RuntimeException(e);
+                }
+
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(ie);
+                }
+            }
+        }
+    }
+
+    private static void quit(PooledDriver pooledDriver) {
+        try {
+            pooledDriver.driver.quit();
+        } catch (Exception ignore) {
+        }
+    }
+
+    private static void reset(WebDriver driver) {
+        driver.manage().deleteAllCookies();
+        ((JavascriptExecutor) driver).executeScript("window.localStorage.clear(); window.sessionStorage.clear();");
+        driver.get("about:blank");
+    }
+
+    static WebDriver lease(String browserName, BrowserProfile profile) {
+        long startTime = System.currentTimeMillis();
+
+        PooledDriver pooledDriver;
+        synchronized (DriverPool.class) {
+            pooledDriver = idleMap.getOrDefault(PooledDriver.getKey(browserName, profile), new ArrayDeque<>()).pollFirst();
+        }
+
+        boolean isWarm = pooledDriver != null;
+        if (!isWarm) {
+            pooledDriver = createDriver(browserName, profile);
+        }
+        pooledDriver.uses++;
+
+        synchronized (DriverPool.class) {
+            leasedMap.put(pooledDriver.driver, pooledDriver);
+        }
+
+        ProjectUtils.logf("Browser %s leased in %d ms (%s, use %d of %d)", pooledDriver.getKey(),
+                System.currentTimeMillis() - startTime, isWarm ? "warm" : "new", pooledDriver.uses, ProjectUtils.getDriverMaxUses());
+
+        return pooledDriver.driver;
+    }
+
+    static void release(WebDriver driver) {
+        PooledDriver pooledDriver;
+        synchronized (DriverPool.class) {
+            pooledDriver = leasedMap.remove(driver);
+        }
+        if (pooledDriver == null) {
+            return;
+        }
+
+        if (pooledDriver.uses >= ProjectUtils.getDriverMaxUses()) {
+            quit(pooledDriver);
+            ProjectUtils.logf("Browser %s evicted after %d uses", pooledDriver.getKey(), pooledDriver.uses);
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            // Лишние окна оставляет только сбой, их состояние сбросом не очистить
+            int windowCount = driver.getWindowHandles().size();
+            if (windowCount > 1) {
+                quit(pooledDriver);
+                ProjectUtils.logf("Browser %s evicted, %d windows are open", pooledDriver.getKey(), windowCount);
+                return;
+            }
+            reset(driver);
+        } catch (Exception e) {
+            quit(pooledDriver);
+            ProjectUtils.logf("Browser %s evicted, reset failed: %s", pooledDriver.getKey(), e.getMessage());
+            return;
+        }
+
+        synchronized (DriverPool.class) {
+            Deque<PooledDriver> idleDeque = idleMap.computeIfAbsent(pooledDriver.getKey(), key -> new ArrayDeque<>());
+            if (idleDeque.size() < ProjectUtils.getThreadCount()) {
+                idleDeque.addFirst(pooledDriver);
+                pooledDriver = null;
+            }
+        }
+
+        if (pooledDriver != null) {
+            quit(pooledDriver);
+            ProjectUtils.logf("Browser %s closed, the pool is full", pooledDriver.getKey());
+        } else {
+            ProjectUtils.logf("Browser reset in %d ms", System.currentTimeMillis() - startTime);
+        }
+    }
+
+    static BrowserProfile getProfile(WebDriver driver) {
+        PooledDriver pooledDriver;
+        synchronized (DriverPool.class) {
+            pooledDriver = leasedMap.get(driver);
+        }
+
+        return pooledDriver != null ? pooledDriver.profile : BrowserProfile.DEFAULT;
+    }
+
+    static void evict(WebDriver driver, String reason) {
+        PooledDriver pooledDriver;
+        synchronized (DriverPool.class) {
+            pooledDriver = leasedMap.remove(driver);
+        }
+
+        if (pooledDriver != null) {
+            quit(pooledDriver);
+            ProjectUtils.logf("Browser %s evicted, %s", pooledDriver.getKey(), reason);
+        } else {
+            try {
+                driver.quit();
+            } catch (Exception ignore) {
+            }
+            ProjectUtils.log("Browser closed, " + reason);
+        }
+    }
+
+    static void shutdown() {
+        synchronized (DriverPool.class) {
+            for (Deque<PooledDriver> idleDeque : idleMap.values()) {
+                idleDeque.forEach(DriverPool::quit);
+                idleDeque.clear();
+            }
+        }
+    }
+}
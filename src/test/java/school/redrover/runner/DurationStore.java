@@ -0,0 +1,160 @@
+package school.redrover.runner;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+public final class DurationStore {
+
+    public enum Phase {
+        SETUP, TEST, TEARDOWN
+    }
+
+    private record Entry(long runId, String className, String methodName, Phase phase, long millis) {
+    }
+
+    private static final Path STORE_PATH = Paths.get("target", "test-durations.tsv");
+
+    private static final long RUN_ID = System.currentTimeMillis();
+
+    private static Map<String, List<Long>> methodMap;
+    private static Map<String, Map<Long, Long>> classMap;
+
+    private static BufferedWriter writer;
+
+    private DurationStore() {
+    }
+
+    private static List<Entry> loadEntries(Path path) {
+        if (Files.notExists(path)) {
+            return Collections.emptyList();
+        }
+
+        List<Entry> result = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] columns = line.split("\t");
+                if (columns.length == 5) {
+                    try {
+                        result.add(new Entry(Long.parseLong(columns[0]), columns[1], columns[2],
+                                Phase.valueOf(columns[3]), Long.parseLong(columns[4])));
+                    } catch (IllegalArgumentException ignore) {
+                    }
+                }
+            }
+        } catch (IOException e) {
+            ProjectUtils.log("Couldn't read test durations from " + path + ": " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    private static String getKey(String... parts) {
+        return String.join("\t", parts);
+    }
+
+    // Читается только история предыдущих запусков, записи текущего запуска в выборку не попадают
+    private static synchronized void init() {
+        if (methodMap == null) {
+            methodMap = new HashMap<>();
+            classMap = new HashMap<>();
+            for (Entry entry : loadEntries(STORE_PATH)) {
+                methodMap.computeIfAbsent(getKey(entry.className(), entry.methodName(), entry.phase().name()), key -> new ArrayList<>())
+                        .add(entry.millis());
+                classMap.computeIfAbsent(getKey(entry.className(), entry.phase().name()), key -> new HashMap<>())
+                        .merge(entry.runId(), entry.millis(), Long::sum);
+            }
+        }
+    }
+
+    private static OptionalLong getPercentile(List<Long> valueList, double percentile) {
+        if (valueList.isEmpty()) {
+            return OptionalLong.empty();
+        }
+
+        List<Long> sortedList = new ArrayList<>(valueList);
+        Collections.sort(sortedList);
+        int index = (int) Math.ceil(percentile / 100 * sortedList.size()) - 1;
+
+        return OptionalLong.of(sortedList.get(Math.max(0, Math.min(index, sortedList.size() - 1))));
+    }
+
+    public static synchronized void record(String className, String methodName, Phase phase, long millis) {
+        try {
+            if (writer == null) {
+                Files.createDirectories(STORE_PATH.getParent());
+                writer = Files.newBufferedWriter(STORE_PATH, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+
+            writer.write(String.join("\t", String.valueOf(RUN_ID), className, methodName, phase.name(), String.valueOf(millis)));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            ProjectUtils.log("Couldn't write test duration: " + e.getMessage());
+        }
+    }
+
+    public static boolean isEmpty() {
+        init();
+        return methodMap.isEmpty();
+    }
+
+    public static OptionalLong getMethodPercentile(String className, String methodName, Phase phase, double percentile) {
+        init();
+        return getPercentile(methodMap.getOrDefault(getKey(className, methodName, phase.name()), List.of()), percentile);
+    }
+
+    public static OptionalLong getClassPercentile(String className, Phase phase, double percentile) {
+        init();
+        return getPercentile(new ArrayList<>(classMap.getOrDefault(getKey(className, phase.name()), Map.of()).values()), percentile);
+    }
+
+    public static long getMethodCost(String className, String methodName, long defaultCost) {
+        long cost = 0;
+        boolean isFound = false;
+        for (Phase phase : Phase.values()) {
+            OptionalLong median = getMethodPercentile(className, methodName, phase, 50);
+            if (median.isPresent()) {
+                cost += median.getAsLong();
+                isFound = true;
+            }
+        }
+
+        return isFound ? cost : defaultCost;
+    }
+
+    public static long getMethodCost(String qualifiedName, long defaultCost) {
+        int index = qualifiedName.lastIndexOf('.');
+        return getMethodCost(qualifiedName.substring(0, index), qualifiedName.substring(index + 1), defaultCost);
+    }
+
+    // Стоимость методов по внешнему файлу истории: сумма медиан по фазам, ключ - полное имя метода
+    public static Map<String, Long> loadMethodCosts(Path path) {
+        Map<String, List<Long>> phaseMap = new HashMap<>();
+        for (Entry entry : loadEntries(path)) {
+            phaseMap.computeIfAbsent(getKey(entry.className() + "." + entry.methodName(), entry.phase().name()), key -> new ArrayList<>())
+                    .add(entry.millis());
+        }
+
+        Map<String, Long> result = new HashMap<>();
+        phaseMap.forEach((key, valueList) ->
+                result.merge(key.substring(0, key.indexOf('\t')), getPercentile(valueList, 50).orElse(0), Long::sum));
+
+        return result;
+    }
+
+    public static long getAverageMethodCost() {
+        init();
+        return (long) methodMap.keySet().stream()
+                .map(key -> key.substring(0, key.lastIndexOf('\t')))
+                .distinct()
+                .mapToLong(key -> getMethodCost(key.split("\t")[0], key.split("\t")[1], 0))
+                .average().orElse(0);
+    }
+}
@@ -0,0 +1,213 @@
+package school.redrover.runner;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Нагрузка по HTTP с открытой моделью: запросы уходят по расписанию, не дожидаясь ответов на предыдущие
+final class HttpLoadRunner {
+
+    private static final Path REPORT_PATH = Paths.get("target", "http-load-report.csv");
+    private static final Path TIME_SERIES_PATH = Paths.get("target", "http-load-timeseries.csv");
+
+    private static final double[] PERCENTILE_ARRAY = {50, 90, 99, 99.9, 99.99};
+    private static final String PERCENTILE_HEADER = "p50,p90,p99,p99.9,p99.99,max";
+
+    static final List<String> ENDPOINT_LIST = List.of("build", "api", "job", "console");
+
+    private static final class Interval {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errorCount = new LongAdder();
+    }
+
+    private static final class Endpoint {
+        private final String method;
+        private final String uri;
+
+        // Время ответа считается от запланированного момента, поэтому включает ожидание отправки, когда сервер не успевает
+        private final LatencyHistogram responseHistogram = new LatencyHistogram();
+        private final LatencyHistogram serviceHistogram = new LatencyHistogram();
+        private final Map<Integer, LongAdder> statusMap = new ConcurrentHashMap<>();
+        private final LongAdder errorCount = new LongAdder();
+        private final Map<Long, Interval> intervalMap = new ConcurrentHashMap<>();
+
+        private Endpoint(String method, String uri) {
+            this.method = method;
+            this.uri = uri;
+        }
+    }
+
+    private static final Map<String, Endpoint> endpointMap = new LinkedHashMap<>();
+
+    private static volatile long recordStartTime;
+
+    private HttpLoadRunner() {
+    }
+
+    private static Endpoint createEndpoint(String name) {
+        String jobPath = "job/" + LoadFlows.JOB_NAME + "/";
+
+        return switch (name) {
+            case "build" -> new Endpoint("POST", jobPath + "build?delay=0sec");
+            case "api" -> new Endpoint("GET", "api/json");
+            case "job" -> new Endpoint("GET", jobPath);
+            case "console" -> new Endpoint("GET", jobPath + "lastBuild/consoleText");
+            default -> throw new IllegalArgumentException("Unknown load endpoint: " + name);
+        };
+    }
+
+    private static void record(Endpoint endpoint, long intendedTime, long sendTime, HttpResponse<?> response) {
+        long endTime = System.nanoTime();
+        if (intendedTime - recordStartTime < 0) {
+            return;
+        }
+
+        long responseMicros = (endTime - intendedTime) / 1000;
+        boolean isError = response == null || response.statusCode() >= 400;
+
+        endpoint.responseHistogram.record(responseMicros);
+        endpoint.serviceHistogram.record((endTime - sendTime) / 1000);
+        if (response != null) {
+            endpoint.statusMap.computeIfAbsent(response.statusCode(), key -> new LongAdder()).increment();
+        }
+
+        Interval interval = endpoint.intervalMap.computeIfAbsent(
+                TimeUnit.NANOSECONDS.toSeconds(intendedTime - recordStartTime), key -> new Interval());
+        interval.histogram.record(responseMicros);
+        if (isError) {
+            endpoint.errorCount.increment();
+            interval.errorCount.increment();
+        }
+    }
+
+    static void run(double rate, int maxInFlight, long warmUpNanos, long durationNanos, List<String> endpointNameList) {
+        endpointMap.clear();
+        List<Endpoint> scheduleList = endpointNameList.stream()
+                .map(name -> endpointMap.computeIfAbsent(name, HttpLoadRunner::createEndpoint))
+                .toList();
+
+        LoadFlows.prepare();
+        JenkinsUtils.getCrumb();
+
+        ProjectUtils.logf("HTTP load: %s requests per second, endpoints %s, up to %d in flight, warm-up %.1f s, duration %.1f s",
+                rate, endpointNameList, maxInFlight, warmUpNanos / 1e9, durationNanos / 1e9);
+
+        // Вместо виртуальных потоков (их нет в Java 17) асинхронный HttpClient, число запросов в полете ограничено семафором
+        Semaphore semaphore = new Semaphore(maxInFlight);
+        long startTime = System.nanoTime();
+        recordStartTime = startTime + warmUpNanos;
+        long endTime = recordStartTime + durationNanos;
+
+        for (long i = 0; ; i++) {
+            long intendedTime = startTime + (long) (i * 1e9 / rate);
+            if (intendedTime - endTime >= 0) {
+                break;
+            }
+
+            long delay;
+            while ((delay = intendedTime - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            semaphore.acquireUninterruptibly();
+
+            Endpoint endpoint = scheduleList.get((int) (i % scheduleList.size()));
+            long sendTime = System.nanoTime();
+            try {
+                JenkinsUtils.sendAsync(endpoint.method, endpoint.uri).whenComplete((response, e) -> {
+                    record(endpoint, intendedTime, sendTime, response);
+                    semaphore.release();
+                });
+            } catch (RuntimeException e) {
+                record(endpoint, intendedTime, sendTime, null);
+                semaphore.release();
+            }
+        }
+        semaphore.acquireUninterruptibly(maxInFlight);
+
+        // Ответы на последние запросы приходят после endTime, поэтому пропускная способность считается по фактическому времени
+        writeReport((System.nanoTime() - recordStartTime) / 1e9);
+    }
+
+    static LatencyHistogram getResponseHistogram(String name) {
+        return endpointMap.get(name).responseHistogram;
+    }
+
+    static LatencyHistogram getServiceHistogram(String name) {
+        return endpointMap.get(name).serviceHistogram;
+    }
+
+    static long getErrorCount(String name) {
+        return endpointMap.get(name).errorCount.sum();
+    }
+
+    private static String toMillis(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+
+    private static String getPercentiles(LatencyHistogram histogram, String delimiter) {
+        StringBuilder result = new StringBuilder();
+        for (double percentile : PERCENTILE_ARRAY) {
+            result.append(toMillis(histogram.getValueAtPercentile(percentile))).append(delimiter);
+        }
+
+        return result.append(toMillis(histogram.getMax())).toString();
+    }
+
+    private static void write(Path path, CharSequence content) {
+        try {
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            ProjectUtils.log("Couldn't write " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static void writeReport(double seconds) {
+        StringBuilder csv = new StringBuilder("endpoint,count,errors,per_sec," + PERCENTILE_HEADER + ",service_p50,service_p99\n");
+        StringBuilder timeSeries = new StringBuilder("second,endpoint,count,errors,p50,p99,max\n");
+
+        ProjectUtils.logf("HTTP load results for %.1f s, response time in ms from the scheduled start (%s):", seconds, PERCENTILE_HEADER);
+        endpointMap.forEach((name, endpoint) -> {
+            LatencyHistogram histogram = endpoint.responseHistogram;
+            ProjectUtils.logf("%-8s %-50s %7d req %6d err %8.2f/s  %s  service p50 %s p99 %s  %s",
+                    name, endpoint.method + " /" + endpoint.uri, histogram.getCount(), endpoint.errorCount.sum(),
+                    histogram.getCount() / seconds, getPercentiles(histogram, " "),
+                    toMillis(endpoint.serviceHistogram.getValueAtPercentile(50)),
+                    toMillis(endpoint.serviceHistogram.getValueAtPercentile(99)),
+                    new TreeMap<>(endpoint.statusMap));
+            csv.append(String.format(Locale.ROOT, "%s,%d,%d,%.3f,%s,%s,%s%n",
+                    name, histogram.getCount(), endpoint.errorCount.sum(), histogram.getCount() / seconds,
+                    getPercentiles(histogram, ","),
+                    toMillis(endpoint.serviceHistogram.getValueAtPercentile(50)),
+                    toMillis(endpoint.serviceHistogram.getValueAtPercentile(99))));
+        });
+
+        // Ряд по секундам, чтобы сравнивать версии Jenkins не только по итогу, но и по деградации во времени
+        Map<Long, Map<String, Interval>> secondMap = new TreeMap<>();
+        endpointMap.forEach((name, endpoint) -> endpoint.intervalMap.forEach((second, interval) ->
+                secondMap.computeIfAbsent(second, key -> new LinkedHashMap<>()).put(name, interval)));
+        secondMap.forEach((second, intervalMap) -> intervalMap.forEach((name, interval) ->
+                timeSeries.append(String.format(Locale.ROOT, "%d,%s,%d,%d,%s,%s,%s%n",
+                        second, name, interval.histogram.getCount(), interval.errorCount.sum(),
+                        toMillis(interval.histogram.getValueAtPercentile(50)),
+                        toMillis(interval.histogram.getValueAtPercentile(99)),
+                        toMillis(interval.histogram.getMax())))));
+
+        write(REPORT_PATH, csv);
+        write(TIME_SERIES_PATH, timeSeries);
+        ProjectUtils.logf("HTTP load results are written to %s and %s", REPORT_PATH, TIME_SERIES_PATH);
+    }
+}
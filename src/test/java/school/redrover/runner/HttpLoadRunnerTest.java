@@ -0,0 +1,44 @@
+package school.redrover.runner;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class HttpLoadRunnerTest extends BaseStandInTest {
+
+    @BeforeMethod
+    public void resetResponseDelay() {
+        getStandIn().setResponseDelay(0);
+    }
+
+    @Test
+    public void requestsFollowArrivalRateTest() {
+        HttpLoadRunner.run(200, 64, 0, TimeUnit.MILLISECONDS.toNanos(500), List.of("build", "api", "job", "api"));
+
+        Assert.assertEquals(getStandIn().getRequestCount("POST /job/" + LoadFlows.JOB_NAME + "/build"), 25);
+        Assert.assertEquals(HttpLoadRunner.getResponseHistogram("api").getCount(), 50);
+        Assert.assertEquals(HttpLoadRunner.getResponseHistogram("job").getCount(), 25);
+        Assert.assertEquals(HttpLoadRunner.getErrorCount("build"), 0);
+        Assert.assertEquals(HttpLoadRunner.getErrorCount("api"), 0);
+        Assert.assertEquals(HttpLoadRunner.getErrorCount("job"), 0);
+    }
+
+    @Test
+    public void responseTimeIncludesQueueingTest() {
+        getStandIn().setResponseDelay(20);
+
+        // Один запрос в полете при 100 запросах в секунду, а сервер успевает не больше 50: к концу прогона
+        // очередь копится примерно до 500 мс. Проверяется половина этого, чтобы медленная машина не роняла тест
+        HttpLoadRunner.run(100, 1, 0, TimeUnit.MILLISECONDS.toNanos(500), List.of("api"));
+
+        LatencyHistogram responseHistogram = HttpLoadRunner.getResponseHistogram("api");
+        LatencyHistogram serviceHistogram = HttpLoadRunner.getServiceHistogram("api");
+        Assert.assertEquals(responseHistogram.getCount(), 50);
+        Assert.assertTrue(responseHistogram.getValueAtPercentile(99) - serviceHistogram.getValueAtPercentile(99) > 250_000,
+                String.format("response p99 %d us, service p99 %d us",
+                        responseHistogram.getValueAtPercentile(99), serviceHistogram.getValueAtPercentile(99)));
+    }
+}
@@ -0,0 +1,139 @@
+package school.redrover.runner;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+
+final class HttpMetrics {
+
+    private static final class Endpoint {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Map<Integer, LongAdder> statusMap = new ConcurrentHashMap<>();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder retryCount = new LongAdder();
+    }
+
+    private static final Set<String> NAMED_SEGMENT_SET = Set.of("job", "view", "user", "computer");
+
+    private static final Map<String, Endpoint> endpointMap = new ConcurrentHashMap<>();
+
+    private HttpMetrics() {
+    }
+
+    // Имена задач, видов и пользователей заменяются на {name}, чтобы запросы группировались по типу.
+    // computer/api/json - это API списка узлов, а не узел с именем api
+    static String getEndpoint(HttpRequest request) {
+        URI uri = request.uri();
+        String[] segmentArray = uri.getRawPath().split("/");
+        StringBuilder path = new StringBuilder(request.method()).append(' ');
+        boolean isPreviousName = false;
+        for (int i = 1; i < segmentArray.length; i++) {
+            boolean isName = !isPreviousName && NAMED_SEGMENT_SET.contains(segmentArray[i - 1])
+                    && !(segmentArray[i].equals("api") && i == segmentArray.length - 2);
+            path.append('/').append(isName ? "{name}" : segmentArray[i]);
+            isPreviousName = isName;
+        }
+
+        return path.length() == request.method().length() + 1 ? path.append('/').toString() : path.toString();
+    }
+
+    private static Endpoint get(HttpRequest request) {
+        return endpointMap.computeIfAbsent(getEndpoint(request), key -> new Endpoint());
+    }
+
+    static void record(HttpRequest request, HttpResponse<?> response, long nanos) {
+        Endpoint endpoint = get(request);
+        endpoint.histogram.record(nanos / 1000);
+        endpoint.statusMap.computeIfAbsent(response.statusCode(), key -> new LongAdder()).increment();
+        endpoint.bytesSent.add(request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).filter(length -> length > 0).orElse(0L));
+    }
+
+    static void recordError(HttpRequest request, long nanos) {
+        Endpoint endpoint = get(request);
+        endpoint.histogram.record(nanos / 1000);
+        endpoint.errorCount.increment();
+    }
+
+    static void recordRetry(HttpRequest request) {
+        get(request).retryCount.increment();
+    }
+
+    // Считает байты тела ответа по мере их получения, для строки и для потока одинаково
+    static <T> HttpResponse.BodyHandler<T> counting(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        LongAdder bytesReceived = get(request).bytesReceived;
+
+        return responseInfo -> {
+            HttpResponse.BodySubscriber<T> subscriber = bodyHandler.apply(responseInfo);
+
+            return new HttpResponse.BodySubscriber<>() {
+                @Override
+                public CompletionStage<T> getBody() {
+                    return subscriber.getBody();
+                }
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscriber.onSubscribe(subscription);
+                }
+
+                @Override
+                public void onNext(List<ByteBuffer> item) {
+                    for (ByteBuffer buffer : item) {
+                        bytesReceived.add(buffer.remaining());
+                    }
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            };
+        };
+    }
+
+    static void reset() {
+        endpointMap.clear();
+    }
+
+    static void writeReport() {
+        if (endpointMap.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<String, Endpoint>> entryList = new ArrayList<>(endpointMap.entrySet());
+        entryList.sort(Comparator.comparingLong(entry -> -entry.getValue().histogram.getTotal()));
+
+        ProjectUtils.log("Jenkins HTTP requests (by total time):");
+        ProjectUtils.logf("%-60s %7s %9s %9s %9s %10s %10s %10s %6s %6s  %s",
+                "endpoint", "count", "p50, ms", "p95, ms", "max, ms", "total, ms", "sent, KB", "recv, KB", "retry", "error", "status");
+        for (Map.Entry<String, Endpoint> entry : entryList) {
+            Endpoint endpoint = entry.getValue();
+            ProjectUtils.logf("%-60s %7d %9.1f %9.1f %9.1f %10d %10d %10d %6d %6d  %s",
+                    entry.getKey(),
+                    endpoint.histogram.getCount(),
+                    endpoint.histogram.getValueAtPercentile(50) / 1000.0,
+                    endpoint.histogram.getValueAtPercentile(95) / 1000.0,
+                    endpoint.histogram.getMax() / 1000.0,
+                    endpoint.histogram.getTotal() / 1000,
+                    endpoint.bytesSent.sum() / 1024,
+                    endpoint.bytesReceived.sum() / 1024,
+                    endpoint.retryCount.sum(),
+                    endpoint.errorCount.sum(),
+                    new TreeMap<>(endpoint.statusMap));
+        }
+    }
+}
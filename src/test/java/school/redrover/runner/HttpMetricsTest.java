@@ -0,0 +1,33 @@
+package school.redrover.runner;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+
+public class HttpMetricsTest {
+
+    private static String getEndpoint(String method, String path) {
+        return HttpMetrics.getEndpoint(HttpRequest.newBuilder(URI.create("http://localhost:8080" + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build());
+    }
+
+    @Test
+    public void namesAreReplacedTest() {
+        Assert.assertEquals(getEndpoint("GET", "/job/My%20Job/api/json"), "GET /job/{name}/api/json");
+        Assert.assertEquals(getEndpoint("POST", "/job/Folder/job/Job/doDelete"), "POST /job/{name}/job/{name}/doDelete");
+        Assert.assertEquals(getEndpoint("POST", "/user/admin/my-views/view/View/doDelete"), "POST /user/{name}/my-views/view/{name}/doDelete");
+        Assert.assertEquals(getEndpoint("POST", "/manage/computer/node/doDelete"), "POST /manage/computer/{name}/doDelete");
+        Assert.assertEquals(getEndpoint("POST", "/job/job/build"), "POST /job/{name}/build");
+    }
+
+    @Test
+    public void collectionApiIsNotNameTest() {
+        Assert.assertEquals(getEndpoint("GET", "/computer/api/json"), "GET /computer/api/json");
+        Assert.assertEquals(getEndpoint("GET", "/computer/api/api/json"), "GET /computer/{name}/api/json");
+        Assert.assertEquals(getEndpoint("GET", "/api/json"), "GET /api/json");
+        Assert.assertEquals(getEndpoint("GET", "/"), "GET /");
+    }
+}
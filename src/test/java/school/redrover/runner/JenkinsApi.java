@@ -0,0 +1,154 @@
+package school.redrover.runner;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonInput;
+import org.openqa.selenium.json.JsonType;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+final class JenkinsApi {
+
+    record Job(String name, String fullName, boolean isFolder) {
+    }
+
+    record View(String name, boolean isPrimary) {
+    }
+
+    record User(String id) {
+    }
+
+    record Node(String name) {
+    }
+
+    // tree= ограничивает ответ нужными полями, а поле jobs есть только у папок
+    static final String JOBS_URI = "api/json?tree=jobs[name,jobs[name]]";
+    static final String VIEWS_URI = "api/json?tree=primaryView[name],views[name]";
+    static final String MY_VIEWS_URI = "me/my-views/api/json?tree=primaryView[name],views[name]";
+    static final String USERS_URI = "asynchPeople/api/json?tree=users[user[id]]";
+    static final String NODES_URI = "computer/api/json?tree=computer[displayName]";
+    static final String CRUMB_URI = "crumbIssuer/api/json";
+    static final String ME_URI = "me/api/json?tree=id";
+
+    private static final Json JSON = new Json();
+
+    private JenkinsApi() {
+    }
+
+    static JsonInput newInput(Reader reader) {
+        return JSON.newInput(reader);
+    }
+
+    private static String nextString(JsonInput input) {
+        if (input.peek() == JsonType.NULL) {
+            input.nextNull();
+            return null;
+        }
+
+        return input.nextString();
+    }
+
+    private static void readObject(JsonInput input, String name, Consumer<JsonInput> reader) {
+        input.beginObject();
+        while (input.hasNext()) {
+            if (input.nextName().equals(name)) {
+                reader.accept(input);
+            } else {
+                input.skipValue();
+            }
+        }
+        input.endObject();
+    }
+
+    private static void readArray(JsonInput input, Consumer<JsonInput> reader) {
+        input.beginArray();
+        while (input.hasNext()) {
+            reader.accept(input);
+        }
+        input.endArray();
+    }
+
+    static List<Job> readJobs(JsonInput input, String parentName) {
+        List<Job> jobList = new ArrayList<>();
+        readObject(input, "jobs", jobs -> readArray(jobs, job -> {
+            String name = null;
+            boolean isFolder = false;
+
+            job.beginObject();
+            while (job.hasNext()) {
+                switch (job.nextName()) {
+                    case "name" -> name = nextString(job);
+                    case "jobs" -> {
+                        isFolder = true;
+                        job.skipValue();
+                    }
+                    default -> job.skipValue();
+                }
+            }
+            job.endObject();
+
+            jobList.add(new Job(name, parentName.isEmpty() ? name : parentName + "/" + name, isFolder));
+        }));
+
+        return jobList;
+    }
+
+    static List<View> readViews(JsonInput input) {
+        List<String> nameList = new ArrayList<>();
+        String[] primaryName = new String[1];
+
+        input.beginObject();
+        while (input.hasNext()) {
+            switch (input.nextName()) {
+                case "primaryView" -> readObject(input, "name", view -> primaryName[0] = nextString(view));
+                case "views" -> readArray(input, views -> readObject(views, "name", view -> nameList.add(nextString(view))));
+                default -> input.skipValue();
+            }
+        }
+        input.endObject();
+
+        return nameList.stream().map(name -> new View(name, name.equals(primaryName[0]))).toList();
+    }
+
+    static List<User> readUsers(JsonInput input) {
+        List<User> userList = new ArrayList<>();
+        readObject(input, "users", users -> readArray(users, user -> readObject(user, "user",
+                userInfo -> readObject(userInfo, "id", id -> userList.add(new User(nextString(id)))))));
+
+        return userList;
+    }
+
+    // У встроенного узла (Built-In Node) класс hudson.model.Hudson$MasterComputer, его удалить нельзя
+    static List<Node> readNodes(JsonInput input) {
+        List<Node> nodeList = new ArrayList<>();
+        readObject(input, "computer", computers -> readArray(computers, computer -> {
+            String name = null;
+            String className = "";
+
+            computer.beginObject();
+            while (computer.hasNext()) {
+                switch (computer.nextName()) {
+                    case "displayName" -> name = nextString(computer);
+                    case "_class" -> className = nextString(computer);
+                    default -> computer.skipValue();
+                }
+            }
+            computer.endObject();
+
+            if (!className.endsWith("MasterComputer")) {
+                nodeList.add(new Node(name));
+            }
+        }));
+
+        return nodeList;
+    }
+
+    static String readCrumb(JsonInput input) {
+        String[] crumb = new String[1];
+        readObject(input, "crumb", value -> crumb[0] = nextString(value));
+
+        return crumb[0];
+    }
+}
@@ -0,0 +1,141 @@
+package school.redrover.runner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class JenkinsSnapshot {
+
+    // Копия эталона готовится в фоне, поэтому сброс - это несколько переименований и /reload
+    private static final List<String> ENTRY_LIST = List.of("config.xml", "jobs", "users", "nodes");
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jenkins-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Map<Path, Future<Path>> stagedMap = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger trashCounter = new AtomicInteger();
+
+    private JenkinsSnapshot() {
+    }
+
+    private static Path getSibling(Path home, String suffix) {
+        return home.resolveSibling(home.getFileName() + suffix);
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, target.resolve(source.relativize(file).toString()),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (Files.notExists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void copyEntries(Path source, Path target) throws IOException {
+        delete(target);
+        Files.createDirectories(target);
+        for (String entry : ENTRY_LIST) {
+            if (Files.exists(source.resolve(entry))) {
+                copy(source.resolve(entry), target.resolve(entry));
+            }
+        }
+    }
+
+    private static Future<Path> stage(Path home) {
+        return executor.submit(() -> {
+            Path staged = getSibling(home, ".staged");
+            copyEntries(getSibling(home, ".baseline"), staged);
+
+            return staged;
+        });
+    }
+
+    private static void createBaseline(Path home) throws IOException {
+        ProjectUtils.logf("Baseline of %s not found, it is created from the current state", home);
+
+        JenkinsUtils.deleteData();
+        copyEntries(home, getSibling(home, ".baseline"));
+    }
+
+    static void restore() {
+        long startTime = System.currentTimeMillis();
+        Path home = Paths.get(ProjectUtils.getJenkinsHome()).toAbsolutePath().normalize();
+
+        try {
+            if (Files.notExists(getSibling(home, ".baseline"))) {
+                createBaseline(home);
+            }
+
+            Path staged = stagedMap.computeIfAbsent(home, JenkinsSnapshot::stage).get();
+            Path trash = getSibling(home, ".trash" + trashCounter.incrementAndGet());
+            Files.createDirectories(trash);
+
+            for (String entry : ENTRY_LIST) {
+                if (Files.exists(home.resolve(entry), LinkOption.NOFOLLOW_LINKS)) {
+                    Files.move(home.resolve(entry), trash.resolve(entry), StandardCopyOption.ATOMIC_MOVE);
+                }
+                if (Files.exists(staged.resolve(entry), LinkOption.NOFOLLOW_LINKS)) {
+                    Files.move(staged.resolve(entry), home.resolve(entry), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            JenkinsUtils.reload();
+
+            executor.submit(() -> {
+                try {
+                    delete(trash);
+                } catch (IOException e) {
+                    ProjectUtils.log("Couldn't delete " + trash + ": " + e.getMessage());
+                }
+            });
+            stagedMap.put(home, stage(home));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            stagedMap.remove(home);
+            throw new RuntimeException("Couldn't prepare a copy of the baseline", e.getCause());
+        }
+
+        ProjectUtils.logf("Jenkins home restored in %d ms", System.currentTimeMillis() - startTime);
+    }
+}
@@ -0,0 +1,465 @@
+package school.redrover.runner;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Заменитель Jenkins для тестов раннера: логин, crumb, createItem, doDelete, build и api/json с состоянием в памяти
+final class JenkinsStandIn implements AutoCloseable {
+
+    private static final String SESSION_COOKIE = "JSESSIONID.standin";
+    private static final String CRUMB_FIELD = "Jenkins-Crumb";
+    private static final Pattern ROOT_ELEMENT_PATTERN = Pattern.compile("<([A-Za-z][\\w.$-]*)");
+    private static final List<String> FOLDER_CLASS_LIST = List.of(
+            "com.cloudbees.hudson.plugins.folder.Folder",
+            "jenkins.branch.OrganizationFolder",
+            "org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject");
+
+    static {
+        // Без TCP_NODELAY маленькие ответы задерживаются алгоритмом Нейгла на десятки миллисекунд
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private static final class Job {
+        private final String className;
+        private final Map<String, Job> childMap;
+        private int buildCount;
+
+        private Job(String className, boolean isFolder) {
+            this.className = className;
+            this.childMap = isFolder ? new LinkedHashMap<>() : null;
+        }
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+        private final Map<String, String> headerMap = new LinkedHashMap<>();
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        private Response header(String name, String value) {
+            headerMap.put(name, value);
+            return this;
+        }
+    }
+
+    private final String userName;
+    private final String password;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final Json json = new Json();
+
+    private final Set<String> sessionSet = ConcurrentHashMap.newKeySet();
+    private final Set<String> authorizedSet = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> requestCountMap = new ConcurrentHashMap<>();
+    private final AtomicInteger failingGetCount = new AtomicInteger();
+    private volatile long responseDelayMillis;
+
+    private final Map<String, Job> jobMap = new LinkedHashMap<>();
+    private final Set<String> viewSet = new LinkedHashSet<>(List.of("all"));
+    private final Set<String> myViewSet = new LinkedHashSet<>(List.of("all"));
+    private final Set<String> userSet = new LinkedHashSet<>();
+    private final Set<String> nodeSet = new LinkedHashSet<>();
+    private String description = "";
+
+    private JenkinsStandIn(String userName, String password) throws IOException {
+        this.userName = userName;
+        this.password = password;
+        this.userSet.add(userName);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    static JenkinsStandIn start(String userName, String password) {
+        try {
+            return new JenkinsStandIn(userName, password);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String getUrl() {
+        return String.format("http://%s:%d/", server.getAddress().getHostString(), server.getAddress().getPort());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    int getRequestCount(String request) {
+        AtomicInteger count = requestCountMap.get(request);
+        return count == null ? 0 : count.get();
+    }
+
+    void failNextGets(int count) {
+        failingGetCount.set(count);
+    }
+
+    // Задержка каждого ответа: вместе с маленьким пулом потоков моделирует перегруженный сервер
+    void setResponseDelay(long millis) {
+        responseDelayMillis = millis;
+    }
+
+    void invalidateSessions() {
+        sessionSet.clear();
+        authorizedSet.clear();
+    }
+
+    synchronized void addJobs(int count) {
+        for (int i = 0; i < count; i++) {
+            jobMap.put("Job" + i, new Job("hudson.model.FreeStyleProject", false));
+        }
+    }
+
+    synchronized List<String> getJobNames() {
+        List<String> nameList = new ArrayList<>();
+        collectJobNames(jobMap, "", nameList);
+        return nameList;
+    }
+
+    private static void collectJobNames(Map<String, Job> map, String parentName, List<String> nameList) {
+        map.forEach((name, job) -> {
+            nameList.add(parentName + name);
+            if (job.childMap != null) {
+                collectJobNames(job.childMap, parentName + name + "/", nameList);
+            }
+        });
+    }
+
+    synchronized List<String> getViewNames() {
+        return new ArrayList<>(viewSet);
+    }
+
+    synchronized List<String> getMyViewNames() {
+        return new ArrayList<>(myViewSet);
+    }
+
+    synchronized List<String> getUserNames() {
+        return new ArrayList<>(userSet);
+    }
+
+    synchronized List<String> getNodeNames() {
+        return new ArrayList<>(nodeSet);
+    }
+
+    synchronized String getDescription() {
+        return description;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseForm(String query) {
+        Map<String, String> formMap = new HashMap<>();
+        if (query != null && !query.isEmpty()) {
+            for (String pair : query.split("&")) {
+                int index = pair.indexOf('=');
+                formMap.put(decode(index == -1 ? pair : pair.substring(0, index)), index == -1 ? "" : decode(pair.substring(index + 1)));
+            }
+        }
+        return formMap;
+    }
+
+    private static String getSession(HttpExchange exchange) {
+        for (String cookie : exchange.getRequestHeaders().getOrDefault("Cookie", List.of())) {
+            for (String pair : cookie.split(";")) {
+                String[] nameValue = pair.trim().split("=", 2);
+                if (nameValue.length == 2 && nameValue[0].equals(SESSION_COOKIE)) {
+                    return nameValue[1];
+                }
+            }
+        }
+        return null;
+    }
+
+    private String newSession() {
+        String session = UUID.randomUUID().toString();
+        sessionSet.add(session);
+        return session;
+    }
+
+    private static String getCrumb(String session) {
+        return "crumb-" + Integer.toHexString(session.hashCode());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String rawPath = exchange.getRequestURI().getRawPath();
+        requestCountMap.computeIfAbsent(method + " " + rawPath, key -> new AtomicInteger()).incrementAndGet();
+
+        List<String> pathList = new ArrayList<>();
+        for (String segment : rawPath.split("/")) {
+            if (!segment.isEmpty()) {
+                pathList.add(URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8));
+            }
+        }
+        Map<String, String> queryMap = parseForm(exchange.getRequestURI().getRawQuery());
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+        if (responseDelayMillis > 0) {
+            try {
+                Thread.sleep(responseDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Response response;
+        try {
+            if ("GET".equals(method) && failingGetCount.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                response = new Response(503, "Service Unavailable");
+            } else {
+                response = route(exchange, method, pathList, queryMap, body);
+            }
+        } catch (RuntimeException e) {
+            response = new Response(500, String.valueOf(e));
+        }
+
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        response.headerMap.forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+        exchange.sendResponseHeaders(response.status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            if (bytes.length > 0) {
+                outputStream.write(bytes);
+            }
+        }
+    }
+
+    private Response route(HttpExchange exchange, String method, List<String> pathList, Map<String, String> queryMap, String body) {
+        String session = getSession(exchange);
+
+        if ("GET".equals(method) && pathList.equals(List.of("login"))) {
+            return new Response(200, "<html>login</html>")
+                    .header("Set-Cookie", SESSION_COOKIE + "=" + newSession() + "; Path=/; HttpOnly");
+        }
+        if ("POST".equals(method) && pathList.equals(List.of("j_spring_security_check"))) {
+            Map<String, String> formMap = parseForm(body);
+            if (!userName.equals(formMap.get("j_username")) || !password.equals(formMap.get("j_password"))) {
+                return new Response(302, "").header("Location", "/loginError");
+            }
+
+            String newSession = newSession();
+            authorizedSet.add(newSession);
+            return new Response(302, "")
+                    .header("Location", "/")
+                    .header("Set-Cookie", SESSION_COOKIE + "=" + newSession + "; Path=/; HttpOnly");
+        }
+
+        if (session == null || !authorizedSet.contains(session)) {
+            return new Response(403, "Authentication required");
+        }
+
+        synchronized (this) {
+            return "GET".equals(method) ? routeGet(session, pathList) : routePost(exchange, session, pathList, queryMap, body);
+        }
+    }
+
+    private Map<String, Job> getFolder(List<String> pathList, int endIndex) {
+        Map<String, Job> map = jobMap;
+        for (int i = 0; i < endIndex; i += 2) {
+            if (!"job".equals(pathList.get(i)) || !map.containsKey(pathList.get(i + 1)) || map.get(pathList.get(i + 1)).childMap == null) {
+                return null;
+            }
+            map = map.get(pathList.get(i + 1)).childMap;
+        }
+        return map;
+    }
+
+    private Job getJob(List<String> pathList, int endIndex) {
+        if (endIndex < 2 || !"job".equals(pathList.get(endIndex - 2))) {
+            return null;
+        }
+
+        Map<String, Job> folder = getFolder(pathList, endIndex - 2);
+        return folder == null ? null : folder.get(pathList.get(endIndex - 1));
+    }
+
+    private List<Map<String, Object>> getJobList(Map<String, Job> map) {
+        List<Map<String, Object>> jobList = new ArrayList<>();
+        map.forEach((name, job) -> {
+            Map<String, Object> jobJson = new LinkedHashMap<>();
+            jobJson.put("_class", job.className);
+            jobJson.put("name", name);
+            if (job.childMap != null) {
+                jobJson.put("jobs", job.childMap.keySet().stream().map(child -> Map.of("name", child)).toList());
+            }
+            jobList.add(jobJson);
+        });
+        return jobList;
+    }
+
+    private static List<Map<String, Object>> getNameList(Collection<String> nameCollection) {
+        return nameCollection.stream().map(name -> Map.<String, Object>of("name", name)).toList();
+    }
+
+    private Response ok(Object value) {
+        return new Response(200, json.toJson(value)).header("Content-Type", "application/json;charset=utf-8");
+    }
+
+    private Response routeGet(String session, List<String> pathList) {
+        if (pathList.isEmpty()) {
+            return new Response(200, "<html>Dashboard [Jenkins]</html>");
+        }
+        if (pathList.equals(List.of("crumbIssuer", "api", "json"))) {
+            return ok(Map.of("_class", "hudson.security.csrf.DefaultCrumbIssuer", "crumb", getCrumb(session), "crumbRequestField", CRUMB_FIELD));
+        }
+        if (pathList.equals(List.of("me", "api", "json"))) {
+            return ok(Map.of("_class", "hudson.model.User", "id", userName));
+        }
+        if (pathList.equals(List.of("me", "my-views", "api", "json"))) {
+            return ok(Map.of("_class", "hudson.model.MyViewsProperty", "primaryView", Map.of("name", "all"), "views", getNameList(myViewSet)));
+        }
+        if (pathList.equals(List.of("asynchPeople", "api", "json"))) {
+            return ok(Map.of("_class", "hudson.model.View$AsynchPeople$People",
+                    "users", userSet.stream().map(user -> Map.of("user", Map.of("id", user))).toList()));
+        }
+        if (pathList.equals(List.of("computer", "api", "json"))) {
+            List<Map<String, Object>> computerList = new ArrayList<>();
+            computerList.add(Map.of("_class", "hudson.model.Hudson$MasterComputer", "displayName", "Built-In Node"));
+            nodeSet.forEach(node -> computerList.add(Map.of("_class", "hudson.slaves.SlaveComputer", "displayName", node)));
+            return ok(Map.of("_class", "hudson.model.ComputerSet", "computer", computerList));
+        }
+        if (pathList.size() >= 2 && pathList.subList(pathList.size() - 2, pathList.size()).equals(List.of("api", "json"))
+                && pathList.size() % 2 == 0) {
+            Map<String, Job> folder = getFolder(pathList, pathList.size() - 2);
+            if (folder == null) {
+                return new Response(404, "Not Found");
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("_class", pathList.size() == 2 ? "hudson.model.Hudson" : "com.cloudbees.hudson.plugins.folder.Folder");
+            result.put("jobs", getJobList(folder));
+            if (pathList.size() == 2) {
+                result.put("primaryView", Map.of("name", "all"));
+                result.put("views", getNameList(viewSet));
+            }
+            return ok(result);
+        }
+        if (pathList.size() >= 4 && pathList.size() % 2 == 0
+                && pathList.subList(pathList.size() - 2, pathList.size()).equals(List.of("lastBuild", "consoleText"))) {
+            Job job = getJob(pathList, pathList.size() - 2);
+            if (job == null || job.buildCount == 0) {
+                return new Response(404, "Not Found");
+            }
+
+            return new Response(200, String.format("Started by user %s%nBuild #%d%nFinished: SUCCESS%n", userName, job.buildCount))
+                    .header("Content-Type", "text/plain;charset=utf-8");
+        }
+        if (pathList.size() % 2 == 0 && getJob(pathList, pathList.size()) != null) {
+            return new Response(200, String.format("<html>%s [Jenkins]</html>", pathList.get(pathList.size() - 1)));
+        }
+
+        return new Response(404, "Not Found");
+    }
+
+    private static Response created() {
+        return new Response(200, "");
+    }
+
+    private static Response redirect() {
+        return new Response(302, "").header("Location", "/");
+    }
+
+    private static Response deleted(boolean isRemoved) {
+        return isRemoved ? redirect() : new Response(404, "Not Found");
+    }
+
+    private Response routePost(HttpExchange exchange, String session, List<String> pathList, Map<String, String> queryMap, String body) {
+        Map<String, String> formMap = parseForm(body);
+        String crumb = exchange.getRequestHeaders().getFirst(CRUMB_FIELD);
+        if (!getCrumb(session).equals(crumb != null ? crumb : formMap.get(CRUMB_FIELD))) {
+            return new Response(403, "No valid crumb was included in the request");
+        }
+
+        String last = pathList.isEmpty() ? "" : pathList.get(pathList.size() - 1);
+        int size = pathList.size();
+
+        if (last.equals("createItem") && size % 2 == 1 && !pathList.get(0).equals("manage")) {
+            Map<String, Job> folder = getFolder(pathList, size - 1);
+            String name = queryMap.get("name");
+            if (folder == null || name == null || folder.containsKey(name)) {
+                return new Response(400, "A job already exists with the name " + name);
+            }
+
+            Matcher matcher = ROOT_ELEMENT_PATTERN.matcher(body);
+            String className = matcher.find() ? matcher.group(1) : "hudson.model.FreeStyleProject";
+            folder.put(name, new Job(className, FOLDER_CLASS_LIST.contains(className)));
+            return created();
+        }
+        if (pathList.equals(List.of("createView"))) {
+            return viewSet.add(queryMap.get("name")) ? created() : new Response(400, "View already exists");
+        }
+        if (pathList.equals(List.of("manage", "securityRealm", "createAccountByAdmin"))) {
+            return userSet.add(formMap.get("username")) ? redirect() : new Response(400, "User name is already taken");
+        }
+        if (pathList.equals(List.of("manage", "computer", "doCreateItem"))) {
+            return nodeSet.add(formMap.get("name")) ? redirect() : new Response(400, "Agent already exists");
+        }
+        if (pathList.equals(List.of("submitDescription"))) {
+            description = formMap.getOrDefault("description", "");
+            return redirect();
+        }
+        if (pathList.equals(List.of("reload"))) {
+            return redirect();
+        }
+
+        if (last.equals("build") && size % 2 == 1) {
+            Job job = getJob(pathList, size - 1);
+            if (job == null || job.childMap != null) {
+                return new Response(404, "Not Found");
+            }
+
+            job.buildCount++;
+            return new Response(201, "").header("Location", "/queue/item/" + job.buildCount + "/");
+        }
+
+        if (last.equals("doDelete")) {
+            if (size % 2 == 1 && pathList.get(0).equals("job")) {
+                Map<String, Job> folder = getFolder(pathList, size - 3);
+                return deleted(folder != null && folder.remove(pathList.get(size - 2)) != null);
+            }
+            if (size == 3 && pathList.get(0).equals("view")) {
+                return deleted(!pathList.get(1).equals("all") && viewSet.remove(pathList.get(1)));
+            }
+            if (size == 6 && pathList.get(0).equals("user") && pathList.get(2).equals("my-views")) {
+                return deleted(!pathList.get(4).equals("all") && myViewSet.remove(pathList.get(4)));
+            }
+            if (size == 5 && pathList.subList(0, 3).equals(List.of("manage", "securityRealm", "user"))) {
+                return deleted(!pathList.get(3).equals(userName) && userSet.remove(pathList.get(3)));
+            }
+            if (size == 4 && pathList.subList(0, 2).equals(List.of("manage", "computer"))) {
+                return deleted(nodeSet.remove(pathList.get(2)));
+            }
+        }
+
+        return new Response(404, "Not Found");
+    }
+}
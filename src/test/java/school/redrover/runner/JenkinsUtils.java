@@ -1,177 +1,510 @@
 package school.redrover.runner;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.JsonInput;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class JenkinsUtils {
 
-    private static final HttpClient client = HttpClient.newBuilder().build();
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_RETRIES = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 200;
 
-    private static String sessionId;
+    // Jenkins работает по http без TLS, поэтому HTTP/1.1 с keep-alive: h2c-upgrade только добавит запрос на каждое соединение
+    private static final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .executor(Executors.newFixedThreadPool(Math.max(2, ProjectUtils.getCleanupConcurrency()), runnable -> {
+                Thread thread = new Thread(runnable, "jenkins-http");
+                thread.setDaemon(true);
+                return thread;
+            }))
+            .build();
 
-    private static String getCrumbFromPage(String page) {
-        final String CRUMB_TAG = "data-crumb-value=\"";
+    private static final ThreadLocal<String> sessionId = new ThreadLocal<>();
 
-        int crumbTagBeginIndex = page.indexOf(CRUMB_TAG) + CRUMB_TAG.length();
-        int crumbTagEndIndex = page.indexOf('"', crumbTagBeginIndex);
+    private static final Map<String, String> templateMap = new ConcurrentHashMap<>();
 
-        return page.substring(crumbTagBeginIndex, crumbTagEndIndex);
-    }
+    private static final Map<String, String> crumbMap = new ConcurrentHashMap<>();
 
-    private static Set<String> getSubstringsFromPage(String page, String from, String to) {
-        return getSubstringsFromPage(page, from, to, 100);
+    private static String[] getHeader() {
+        List<String> result = new ArrayList<>(List.of("Content-Type", "application/x-www-form-urlencoded"));
+        if (sessionId.get() != null) {
+            result.add("Cookie");
+            result.add(sessionId.get());
+        }
+        return result.toArray(String[]::new);
     }
 
-    private static Set<String> getSubstringsFromPage(String page, String from, String to, int maxSubstringLength) {
-        Set<String> result = new HashSet<>();
+    private static HttpRequest.Builder newRequest(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .headers(getHeader());
+    }
 
-        int index = page.indexOf(from);
-        while (index != -1) {
-            int endIndex = page.indexOf(to, index + from.length());
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(RETRY_BACKOFF_MILLIS << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
 
-            if (endIndex != -1 && endIndex - index < maxSubstringLength) {
-                result.add(page.substring(index + from.length(), endIndex));
-            } else {
-                endIndex = index + from.length();
+    // Повторяются только GET-запросы: при ошибке соединения, таймауте или ответе 5xx
+    private static <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        boolean isIdempotent = "GET".equals(request.method());
+        int attempt = 0;
+        while (true) {
+            long startTime = System.nanoTime();
+            try {
+                HttpResponse<T> response = client.send(request, HttpMetrics.counting(request, bodyHandler));
+                HttpMetrics.record(request, response, System.nanoTime() - startTime);
+                if (!isIdempotent || response.statusCode() < 500 || ++attempt > MAX_RETRIES) {
+                    return response;
+                }
+
+                if (response.body() instanceof InputStream inputStream) {
+                    inputStream.close();
+                }
+            } catch (IOException e) {
+                HttpMetrics.recordError(request, System.nanoTime() - startTime);
+                if (!isIdempotent || ++attempt > MAX_RETRIES) {
+                    throw new RuntimeException(e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
             }
 
-            index = page.indexOf(from, endIndex);
+            HttpMetrics.recordRetry(request);
+            backoff(attempt);
         }
+    }
 
-        return result;
+    private static HttpResponse<String> getHttp(String url) {
+        return send(newRequest(url).GET().build(), HttpResponse.BodyHandlers.ofString());
     }
 
-    private static String[] getHeader() {
-        List<String> result = new ArrayList<>(List.of("Content-Type", "application/x-www-form-urlencoded"));
-        if (sessionId != null) {
-            result.add("Cookie");
-            result.add(sessionId);
+    private static HttpResponse<String> postHttp(String url, String body) {
+        return send(newRequest(url).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> postXml(String url, String body, String crumb) {
+        return send(newRequest(url)
+                        .setHeader("Content-Type", "application/xml")
+                        .setHeader("Jenkins-Crumb", crumb)
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<InputStream> getHttpStream(String url) {
+        return send(newRequest(url).GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private static void loginHttp() {
+        final String HEAD_COOKIE = "set-cookie";
+
+        HttpResponse<String> loginPage = getHttp(ProjectUtils.getUrl() + "login?from=%2F");
+        sessionId.set(loginPage.headers().firstValue(HEAD_COOKIE).orElse(null));
+
+        // Поле sessionId используется внутри postHttp
+        HttpResponse<String> indexPage = postHttp(ProjectUtils.getUrl() + "j_spring_security_check",
+                String.format("j_username=%s&j_password=%s&from=%%2F&Submit=", ProjectUtils.getUserName(), ProjectUtils.getPassword()));
+        sessionId.set(indexPage.headers().firstValue(HEAD_COOKIE).orElse(""));
+    }
+
+    // Сессия привязана к Jenkins: при смене Jenkins в потоке ее нужно забыть
+    static void resetSession() {
+        sessionId.remove();
+    }
+
+    static <R> R getJson(String uri, Function<JsonInput, R> parser) {
+        HttpResponse<InputStream> response = getHttpStream(ProjectUtils.getUrl() + uri);
+        if (response.statusCode() != 200) {
+            close(response);
+            loginHttp();
+            response = getHttpStream(ProjectUtils.getUrl() + uri);
+        }
+
+        if (response.statusCode() == 403) {
+            close(response);
+            throw new RuntimeException(String.format("Authorization does not work with user: \"%s\" and password: \"%s\"", ProjectUtils.getUserName(), ProjectUtils.getPassword()));
+        } else if (response.statusCode() != 200) {
+            close(response);
+            throw new RuntimeException(String.format("Couldn't get %s, status code %d", uri, response.statusCode()));
+        }
+
+        // Ответ разбирается потоком, без загрузки в строку целиком
+        try (JsonInput input = JenkinsApi.newInput(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            return parser.apply(input);
         }
-        return result.toArray(String[]::new);
     }
 
-    private static HttpResponse<String> getHttp(String url) {
+    private static void close(HttpResponse<InputStream> response) {
         try {
-            return client.send(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(url))
-                            .headers(getHeader())
-                            .GET()
-                            .build(),
-                    HttpResponse.BodyHandlers.ofString());
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            response.body().close();
+        } catch (IOException ignore) {
         }
     }
 
-    private static HttpResponse<String> postHttp(String url, String body) {
-        try {
-            return client.send(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(url))
-                            .headers(getHeader())
-                            .POST(HttpRequest.BodyPublishers.ofString(body))
-                            .build(),
-                    HttpResponse.BodyHandlers.ofString());
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    private static void removeCrumb() {
+        if (sessionId.get() != null) {
+            crumbMap.remove(sessionId.get());
         }
     }
 
-    private static String getPage(String uri) {
-        HttpResponse<String> page = getHttp(ProjectUtils.getUrl() + uri);
-        if (page.statusCode() != 200) {
-            final String HEAD_COOKIE = "set-cookie";
+    // Crumb привязан к сессии, поэтому после повторного логина запрашивается заново
+    static String getCrumb() {
+        if (sessionId.get() == null) {
+            loginHttp();
+        }
 
-            HttpResponse<String> loginPage = getHttp(ProjectUtils.getUrl() + "login?from=%2F");
-            sessionId = loginPage.headers().firstValue(HEAD_COOKIE).orElse(null);
+        String crumb = crumbMap.get(sessionId.get());
+        if (crumb == null) {
+            crumb = getJson(JenkinsApi.CRUMB_URI, JenkinsApi::readCrumb);
+            crumbMap.put(sessionId.get(), crumb);
+        }
 
-            // Поле sessionId используется внутри postHttp
-            HttpResponse<String> indexPage = postHttp(ProjectUtils.getUrl() + "j_spring_security_check",
-                    String.format("j_username=%s&j_password=%s&from=%%2F&Submit=", ProjectUtils.getUserName(), ProjectUtils.getPassword()));
-            sessionId = indexPage.headers().firstValue(HEAD_COOKIE).orElse("");
+        return crumb;
+    }
 
-            page = getHttp(ProjectUtils.getUrl() + uri);
+    private static String getJobPath(String fullName) {
+        StringBuilder path = new StringBuilder();
+        for (String name : fullName.split("/")) {
+            path.append("job/").append(encodePath(name)).append("/");
         }
 
-        if (page.statusCode() == 403) {
-            throw new RuntimeException(String.format("Authorization does not work with user: \"%s\" and password: \"%s\"", ProjectUtils.getUserName(), ProjectUtils.getPassword()));
-        } else if (page.statusCode() != 200) {
-            throw new RuntimeException("Something went wrong while clearing data");
+        return path.toString();
+    }
+
+    static List<JenkinsApi.Job> getJobs(boolean isRecursive) {
+        List<JenkinsApi.Job> jobList = new ArrayList<>(getJson(JenkinsApi.JOBS_URI, input -> JenkinsApi.readJobs(input, "")));
+        if (isRecursive) {
+            for (int i = 0; i < jobList.size(); i++) {
+                JenkinsApi.Job folder = jobList.get(i);
+                if (folder.isFolder()) {
+                    jobList.addAll(getJson(getJobPath(folder.fullName()) + JenkinsApi.JOBS_URI,
+                            input -> JenkinsApi.readJobs(input, folder.fullName())));
+                }
+            }
+        }
+
+        return jobList;
+    }
+
+    static List<JenkinsApi.View> getViews() {
+        return getJson(JenkinsApi.VIEWS_URI, JenkinsApi::readViews);
+    }
+
+    static List<JenkinsApi.View> getMyViews() {
+        return getJson(JenkinsApi.MY_VIEWS_URI, JenkinsApi::readViews);
+    }
+
+    static List<JenkinsApi.User> getUsers() {
+        return getJson(JenkinsApi.USERS_URI, JenkinsApi::readUsers);
+    }
+
+    static List<JenkinsApi.Node> getNodes() {
+        return getJson(JenkinsApi.NODES_URI, JenkinsApi::readNodes);
+    }
+
+    private static CompletableFuture<HttpResponse<String>> postHttpAsync(String url, String body, Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
         }
 
-        return page.body();
+        HttpRequest request = newRequest(url).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        long startTime = System.nanoTime();
+
+        return client.sendAsync(request, HttpMetrics.counting(request, HttpResponse.BodyHandlers.ofString()))
+                .whenComplete((response, e) -> {
+                    semaphore.release();
+                    if (response != null) {
+                        HttpMetrics.record(request, response, System.nanoTime() - startTime);
+                    } else {
+                        HttpMetrics.recordError(request, System.nanoTime() - startTime);
+                    }
+                });
+    }
+
+    // Для нагрузки по HTTP: один запрос в сессии текущего потока, без повторов, тело ответа не сохраняется
+    static CompletableFuture<HttpResponse<Void>> sendAsync(String method, String uri) {
+        HttpRequest.Builder builder = newRequest(ProjectUtils.getUrl() + uri);
+        HttpRequest request = "POST".equals(method)
+                ? builder.setHeader("Jenkins-Crumb", getCrumb()).POST(HttpRequest.BodyPublishers.noBody()).build()
+                : builder.GET().build();
+        long startTime = System.nanoTime();
+
+        return client.sendAsync(request, HttpMetrics.counting(request, HttpResponse.BodyHandlers.discarding()))
+                .whenComplete((response, e) -> {
+                    if (response != null) {
+                        HttpMetrics.record(request, response, System.nanoTime() - startTime);
+                    } else {
+                        HttpMetrics.recordError(request, System.nanoTime() - startTime);
+                    }
+                });
     }
 
-    private static void deleteByLink(String link, Set<String> names, String crumb) {
+    private static void deleteByLink(String link, List<String> names, String crumb,
+                                     Semaphore semaphore, List<CompletableFuture<HttpResponse<String>>> futureList) {
         String fullCrumb = String.format("Jenkins-Crumb=%s", crumb);
         for (String name : names) {
-            postHttp(String.format(ProjectUtils.getUrl() + link, name), fullCrumb);
+            futureList.add(postHttpAsync(String.format(ProjectUtils.getUrl() + link, encodePath(name)), fullCrumb, semaphore));
         }
     }
 
-    private static void deleteJobs() {
-        String mainPage = getPage("");
-        deleteByLink("job/%s/doDelete",
-                getSubstringsFromPage(mainPage, "href=\"job/", "/\""),
-                getCrumbFromPage(mainPage));
+    private static void deleteDescription(String crumb,
+                                          Semaphore semaphore, List<CompletableFuture<HttpResponse<String>>> futureList) {
+        futureList.add(postHttpAsync(ProjectUtils.getUrl() + "submitDescription",
+                String.format(
+                        "description=&Submit=&Jenkins-Crumb=%1$s&json=%%7B%%22description%%22%%3A+%%22%%22%%2C+%%22Submit%%22%%3A+%%22%%22%%2C+%%22Jenkins-Crumb%%22%%3A+%%22%1$s%%22%%7D",
+                        crumb),
+                semaphore));
     }
 
-    private static void deleteViews() {
-        String mainPage = getPage("");
-        deleteByLink("view/%s/doDelete",
-                getSubstringsFromPage(mainPage, "href=\"/view/", "/\""),
-                getCrumbFromPage(mainPage));
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
 
-        String viewPage = getPage("me/my-views/view/all/");
-        deleteByLink("user/admin/my-views/view/%s/doDelete",
-                getSubstringsFromPage(viewPage, "href=\"/user/admin/my-views/view/", "/\""),
-                getCrumbFromPage(viewPage));
+    static String encodePath(String value) {
+        return encode(value).replace("+", "%20");
     }
 
-    private static void deleteUsers() {
-        String userPage = getPage("manage/securityRealm/");
-        deleteByLink("manage/securityRealm/user/%s/doDelete",
-                getSubstringsFromPage(userPage, "href=\"user/", "/delete\"").stream()
-                        .filter(user -> !user.equals(ProjectUtils.getUserName())).collect(Collectors.toSet()),
-                getCrumbFromPage(userPage));
+    private static String escapeXml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;").replace("'", "&apos;");
     }
 
-    private static void deleteNodes() {
-        String mainPage = getPage("");
-        deleteByLink("manage/computer/%s/doDelete",
-                getSubstringsFromPage(mainPage, "href=\"/manage/computer/", "/\""),
-                getCrumbFromPage(mainPage));
+    private static String getTemplate(String name) {
+        return templateMap.computeIfAbsent(name, key -> {
+            try (InputStream inputStream = JenkinsUtils.class.getClassLoader().getResourceAsStream("jenkins/" + key + ".xml")) {
+                if (inputStream == null) {
+                    throw new RuntimeException("Template jenkins/" + key + ".xml not found");
+                }
+
+                return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
     }
 
+    private static void checkResponse(HttpResponse<String> response, String action) {
+        if (response.statusCode() >= 400) {
+            throw new RuntimeException(String.format("Couldn't %s, status code %d", action, response.statusCode()));
+        }
+    }
 
-    private static void deleteDescription() {
-        String mainPage = getPage("");
-        postHttp(ProjectUtils.getUrl() + "submitDescription",
-                String.format(
-                        "description=&Submit=&Jenkins-Crumb=%1$s&json=%%7B%%22description%%22%%3A+%%22%%22%%2C+%%22Submit%%22%%3A+%%22%%22%%2C+%%22Jenkins-Crumb%%22%%3A+%%22%1$s%%22%%7D",
-                        getCrumbFromPage(mainPage)));
+    // Сохраненный crumb мог устареть вместе с сессией: тогда логинимся заново и повторяем запрос один раз
+    private static HttpResponse<String> postWithCrumb(Function<String, HttpResponse<String>> post) {
+        HttpResponse<String> response = post.apply(getCrumb());
+        if (response.statusCode() == 401 || response.statusCode() == 403) {
+            removeCrumb();
+            loginHttp();
+            response = post.apply(getCrumb());
+        }
+
+        return response;
+    }
+
+    static void createJob(String name, TestUtils.JobType jobType, String... folderNames) {
+        StringBuilder folderPath = new StringBuilder();
+        for (String folderName : folderNames) {
+            folderPath.append("job/").append(encodePath(folderName)).append("/");
+        }
+
+        checkResponse(
+                postWithCrumb(crumb -> postXml(ProjectUtils.getUrl() + folderPath + "createItem?name=" + encode(name),
+                        getTemplate("job/" + jobType.name()),
+                        crumb)),
+                "create job " + name);
+    }
+
+    static void createView(String name, TestUtils.ViewType viewType) {
+        checkResponse(
+                postWithCrumb(crumb -> postXml(ProjectUtils.getUrl() + "createView?name=" + encode(name),
+                        String.format(getTemplate("view/" + viewType.name()), escapeXml(name)),
+                        crumb)),
+                "create view " + name);
+    }
+
+    static void createUser(String userName, String password, String fullName, String email) {
+        checkResponse(
+                postWithCrumb(crumb -> postHttp(ProjectUtils.getUrl() + "manage/securityRealm/createAccountByAdmin",
+                        String.format("username=%1$s&password1=%2$s&password2=%2$s&fullname=%3$s&email=%4$s&Jenkins-Crumb=%5$s",
+                                encode(userName), encode(password), encode(fullName), encode(email),
+                                crumb))),
+                "create user " + userName);
+    }
+
+    static void createNode(String name) {
+        checkResponse(
+                postWithCrumb(crumb -> postHttp(ProjectUtils.getUrl() + "manage/computer/doCreateItem",
+                        String.format("name=%s&type=hudson.slaves.DumbSlave&Jenkins-Crumb=%s&json=%s",
+                                encode(name), crumb, encode(getNodeJson(name, crumb))))),
+                "create node " + name);
+    }
+
+    private static String getNodeJson(String name, String crumb) {
+        return String.format(
+                "{\"name\": \"%1$s\", \"nodeDescription\": \"\", \"numExecutors\": \"1\", \"remoteFS\": \"/tmp/%1$s\", " +
+                        "\"labelString\": \"\", \"mode\": \"NORMAL\", " +
+                        "\"launcher\": {\"stapler-class\": \"hudson.slaves.JNLPLauncher\", \"$class\": \"hudson.slaves.JNLPLauncher\"}, " +
+                        "\"retentionStrategy\": {\"stapler-class\": \"hudson.slaves.RetentionStrategy$Always\", \"$class\": \"hudson.slaves.RetentionStrategy$Always\"}, " +
+                        "\"nodeProperties\": {\"stapler-class-bag\": \"true\"}, " +
+                        "\"type\": \"hudson.slaves.DumbSlave\", \"Jenkins-Crumb\": \"%2$s\"}",
+                name.replace("\\", "\\\\").replace("\"", "\\\""), crumb);
+    }
+
+    static void reload() {
+        HttpResponse<String> response = postWithCrumb(crumb -> postHttp(ProjectUtils.getUrl() + "reload",
+                String.format("Jenkins-Crumb=%s", crumb)));
+        if (response.statusCode() >= 400) {
+            throw new RuntimeException(String.format("Couldn't reload Jenkins, status code %d", response.statusCode()));
+        }
+
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (getHttp(ProjectUtils.getUrl() + "login").statusCode() != 200) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new RuntimeException("Jenkins is not ready after reload");
+            }
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     static void clearData() {
-        JenkinsUtils.deleteViews();
-        JenkinsUtils.deleteJobs();
-        JenkinsUtils.deleteUsers();
-        JenkinsUtils.deleteNodes();
-        JenkinsUtils.deleteDescription();
+        if (ProjectUtils.isSnapshotReset()) {
+            JenkinsSnapshot.restore();
+        } else {
+            deleteData();
+        }
+    }
+
+    static void deleteData() {
+        long startTime = System.currentTimeMillis();
+
+        // Вложенные в папки элементы удаляются вместе с папкой, поэтому берутся только задачи верхнего уровня
+        List<String> jobList = getJobs(false).stream().map(JenkinsApi.Job::name).toList();
+        List<String> viewList = getViews().stream().filter(view -> !view.isPrimary()).map(JenkinsApi.View::name).toList();
+        List<String> myViewList = getMyViews().stream().filter(view -> !view.isPrimary()).map(JenkinsApi.View::name).toList();
+        List<String> userList = getUsers().stream().map(JenkinsApi.User::id)
+                .filter(user -> !user.equals(ProjectUtils.getUserName())).toList();
+        List<String> nodeList = getNodes().stream().map(JenkinsApi.Node::name).toList();
+        // Crumb запрашивается после списков: если сессия истекла, getJson уже залогинился заново
+        String crumb = getCrumb();
+
+        Semaphore semaphore = new Semaphore(ProjectUtils.getCleanupConcurrency());
+        List<CompletableFuture<HttpResponse<String>>> futureList = new ArrayList<>();
+
+        deleteByLink("view/%s/doDelete", viewList, crumb, semaphore, futureList);
+        deleteByLink("user/" + encodePath(ProjectUtils.getUserName()) + "/my-views/view/%s/doDelete", myViewList, crumb, semaphore, futureList);
+        deleteByLink("job/%s/doDelete", jobList, crumb, semaphore, futureList);
+        deleteByLink("manage/securityRealm/user/%s/doDelete", userList, crumb, semaphore, futureList);
+        deleteByLink("manage/computer/%s/doDelete", nodeList, crumb, semaphore, futureList);
+        deleteDescription(crumb, semaphore, futureList);
+
+        CompletableFuture.allOf(futureList.toArray(CompletableFuture[]::new)).join();
+
+        List<HttpResponse<String>> failedList = futureList.stream().map(CompletableFuture::join)
+                .filter(response -> response.statusCode() >= 400).toList();
+        if (!failedList.isEmpty()) {
+            // Отказ в доступе значит, что сессия или crumb устарели: следующая очистка начнет с нового логина
+            if (failedList.stream().anyMatch(response -> response.statusCode() == 401 || response.statusCode() == 403)) {
+                removeCrumb();
+                sessionId.remove();
+            }
+            throw new RuntimeException("Couldn't clear data: " + failedList.stream()
+                    .map(response -> response.request().uri().getRawPath() + " " + response.statusCode())
+                    .collect(Collectors.joining(", ")));
+        }
+
+        ProjectUtils.logf("Data cleared in %d ms, %d delete requests", System.currentTimeMillis() - startTime, futureList.size() - 1);
+    }
+
+    // /me отвечает 200 только залогиненному пользователю: cookie истекшей сессии браузер принял бы молча
+    private static boolean isSessionValid() {
+        return sessionId.get() != null && !sessionId.get().isEmpty()
+                && getHttp(ProjectUtils.getUrl() + JenkinsApi.ME_URI).statusCode() == 200;
+    }
+
+    private static String getSessionCookie() {
+        if (!isSessionValid()) {
+            removeCrumb();
+            loginHttp();
+        }
+
+        String cookie = sessionId.get();
+        if (cookie == null || cookie.isEmpty()) {
+            return null;
+        }
+
+        return cookie.split(";")[0].trim();
+    }
+
+    private static boolean loginBySessionCookie(WebDriver driver) {
+        String sessionCookie = getSessionCookie();
+        if (sessionCookie == null || !sessionCookie.contains("=")) {
+            return false;
+        }
+
+        // Cookie можно добавить только находясь на странице того же домена
+        driver.get(ProjectUtils.getUrl() + "robots.txt");
+        driver.manage().addCookie(new Cookie(
+                sessionCookie.substring(0, sessionCookie.indexOf('=')),
+                sessionCookie.substring(sessionCookie.indexOf('=') + 1),
+                "/"));
+        ProjectUtils.get(driver);
+
+        return !driver.getCurrentUrl().contains("/login");
     }
 
     static void login(WebDriver driver) {
+        try {
+            if (loginBySessionCookie(driver)) {
+                return;
+            }
+            ProjectUtils.log("Session cookie is not accepted, login by form");
+        } catch (RuntimeException e) {
+            ProjectUtils.log("Couldn't login by session cookie: " + e.getMessage());
+        }
+
+        if (!driver.getCurrentUrl().contains("/login")) {
+            ProjectUtils.get(driver);
+        }
         driver.findElement(By.name("j_username")).sendKeys(ProjectUtils.getUserName());
         driver.findElement(By.name("j_password")).sendKeys(ProjectUtils.getPassword());
         driver.findElement(By.name("Submit")).click();
@@ -0,0 +1,63 @@
+package school.redrover.runner;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class JenkinsUtilsTest extends BaseStandInTest {
+
+    @BeforeMethod
+    public void invalidateSessions() {
+        getStandIn().invalidateSessions();
+    }
+
+    @Test
+    public void createAndDeleteDataTest() {
+        JenkinsUtils.createJob("Folder 1", TestUtils.JobType.Folder);
+        JenkinsUtils.createJob("Job in folder", TestUtils.JobType.FreestyleProject, "Folder 1");
+        JenkinsUtils.createJob("Pipeline+1", TestUtils.JobType.Pipeline);
+        JenkinsUtils.createView("View 1", TestUtils.ViewType.ListView);
+        JenkinsUtils.createUser("user1", "password", "User One", "user1@example.com");
+        JenkinsUtils.createNode("node 1");
+
+        Assert.assertEquals(getStandIn().getJobNames(), List.of("Folder 1", "Folder 1/Job in folder", "Pipeline+1"));
+        Assert.assertEquals(JenkinsUtils.getJobs(true), List.of(
+                new JenkinsApi.Job("Folder 1", "Folder 1", true),
+                new JenkinsApi.Job("Pipeline+1", "Pipeline+1", false),
+                new JenkinsApi.Job("Job in folder", "Folder 1/Job in folder", false)));
+
+        JenkinsUtils.deleteData();
+
+        Assert.assertEquals(getStandIn().getJobNames(), List.of());
+        Assert.assertEquals(getStandIn().getViewNames(), List.of("all"));
+        Assert.assertEquals(getStandIn().getMyViewNames(), List.of("all"));
+        Assert.assertEquals(getStandIn().getUserNames(), List.of(ProjectUtils.getUserName()));
+        Assert.assertEquals(getStandIn().getNodeNames(), List.of());
+    }
+
+    @Test
+    public void crumbIsCachedPerSessionTest() {
+        String crumb = JenkinsUtils.getCrumb();
+        Assert.assertEquals(JenkinsUtils.getCrumb(), crumb);
+        int crumbRequestCount = getStandIn().getRequestCount("GET /crumbIssuer/api/json");
+
+        getStandIn().invalidateSessions();
+        JenkinsUtils.getNodes();
+
+        Assert.assertNotEquals(JenkinsUtils.getCrumb(), crumb);
+        Assert.assertEquals(getStandIn().getRequestCount("GET /crumbIssuer/api/json"), crumbRequestCount + 1);
+    }
+
+    @Test
+    public void getIsRetriedOnServerErrorTest() {
+        JenkinsUtils.getNodes();
+        int nodeRequestCount = getStandIn().getRequestCount("GET /computer/api/json");
+
+        getStandIn().failNextGets(2);
+
+        Assert.assertEquals(JenkinsUtils.getNodes(), List.of());
+        Assert.assertEquals(getStandIn().getRequestCount("GET /computer/api/json"), nodeRequestCount + 3);
+    }
+}
@@ -0,0 +1,113 @@
+package school.redrover.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class LatencyHistogram {
+
+    // 16 линейных корзин на каждую степень двойки, погрешность не больше 1/16
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    public record Bucket(long upperValue, long count) {
+    }
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long totalValue;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue;
+
+    private static int getIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1));
+
+        return SUB_BUCKET_COUNT + (exponent - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long getUpperValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int exponent = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+
+        return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    public synchronized void record(long value) {
+        value = Math.max(value, 0);
+
+        counts[getIndex(value)]++;
+        totalCount++;
+        totalValue += value;
+        minValue = Math.min(minValue, value);
+        maxValue = Math.max(maxValue, value);
+    }
+
+    public synchronized void add(LatencyHistogram other) {
+        synchronized (other) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += other.counts[i];
+            }
+            totalCount += other.totalCount;
+            totalValue += other.totalValue;
+            minValue = Math.min(minValue, other.minValue);
+            maxValue = Math.max(maxValue, other.maxValue);
+        }
+    }
+
+    public synchronized long getCount() {
+        return totalCount;
+    }
+
+    public synchronized long getTotal() {
+        return totalValue;
+    }
+
+    public synchronized long getMin() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    public synchronized long getMax() {
+        return maxValue;
+    }
+
+    public synchronized double getMean() {
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts[i];
+            if (count >= rank) {
+                return Math.min(getUpperValue(i), maxValue);
+            }
+        }
+
+        return maxValue;
+    }
+
+    public synchronized List<Bucket> getBuckets() {
+        List<Bucket> result = new ArrayList<>();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] > 0) {
+                result.add(new Bucket(getUpperValue(i), counts[i]));
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package school.redrover.runner;
+
+import org.openqa.selenium.WebDriver;
+import school.redrover.model.BuildHistoryPage;
+import school.redrover.model.MainPage;
+import school.redrover.model.builds.BuildPage;
+import school.redrover.model.builds.ConsoleOutputPage;
+import school.redrover.model.jobs.FreestyleProjectPage;
+import school.redrover.model.views.ViewPage;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+final class LoadFlows {
+
+    static final String JOB_NAME = "LoadTestJob";
+    static final String VIEW_NAME = "LoadTestView";
+
+    static final List<String> NAME_LIST = List.of("build", "history", "view");
+
+    private LoadFlows() {
+    }
+
+    static Consumer<WebDriver> get(String name) {
+        return switch (name) {
+            case "build" -> LoadFlows::build;
+            case "history" -> LoadFlows::history;
+            case "view" -> LoadFlows::view;
+            default -> throw new IllegalArgumentException("Unknown load flow: " + name);
+        };
+    }
+
+    // Данные не удаляются: нагрузка может идти на рабочий контроллер, поэтому только создается недостающее
+    static void prepare() {
+        if (JenkinsUtils.getJobs(false).stream().noneMatch(job -> job.name().equals(JOB_NAME))) {
+            JenkinsUtils.createJob(JOB_NAME, TestUtils.JobType.FreestyleProject);
+        }
+        if (JenkinsUtils.getViews().stream().noneMatch(view -> view.name().equals(VIEW_NAME))) {
+            JenkinsUtils.createView(VIEW_NAME, TestUtils.ViewType.ListView);
+        }
+    }
+
+    private static void build(WebDriver driver) {
+        FreestyleProjectPage projectPage = LoadRunner.step("clickJobName",
+                () -> new MainPage(driver).clickJobName(JOB_NAME, new FreestyleProjectPage(driver)));
+        LoadRunner.step("clickBuildNowFromSideMenu", projectPage::clickBuildNowFromSideMenu);
+        BuildPage buildPage = LoadRunner.step("clickLastBuildLink", projectPage::clickLastBuildLink);
+        ConsoleOutputPage consoleOutputPage = LoadRunner.step("clickConsoleOutput", buildPage::clickConsoleOutput);
+        LoadRunner.step("getConsoleOutputText", consoleOutputPage::getConsoleOutputText);
+    }
+
+    private static void history(WebDriver driver) {
+        BuildHistoryPage buildHistoryPage = LoadRunner.step("clickBuildsHistoryFromSideMenu",
+                () -> new MainPage(driver).clickBuildsHistoryFromSideMenu());
+        LoadRunner.step("getNumberOfLinesInBuildHistoryTable", buildHistoryPage::getNumberOfLinesInBuildHistoryTable);
+    }
+
+    private static void view(WebDriver driver) {
+        ViewPage viewPage = LoadRunner.step("clickOnView",
+                () -> new MainPage(driver).clickOnView(VIEW_NAME, new ViewPage(driver)));
+        LoadRunner.step("getActiveViewName", viewPage::getActiveViewName);
+    }
+}
@@ -0,0 +1,204 @@
+package school.redrover.runner;
+
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Нагрузочный режим: N браузеров без окна гоняют сценарии из LoadFlows заданное время
+public final class LoadRunner {
+
+    private static final Path REPORT_PATH = Paths.get("target", "load-report.csv");
+
+    private static final class StepStat {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errorCount = new LongAdder();
+    }
+
+    private static final Map<String, StepStat> statMap = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<String> currentFlow = new ThreadLocal<>();
+
+    // Шаги, начатые до конца прогрева, не попадают в отчет
+    private static volatile long recordStartTime;
+
+    private LoadRunner() {
+    }
+
+    private static boolean isRecorded(long startTime) {
+        return startTime - recordStartTime >= 0;
+    }
+
+    private static void record(String name, long startTime, boolean isSuccess) {
+        if (!isRecorded(startTime)) {
+            return;
+        }
+
+        StepStat stat = statMap.computeIfAbsent(name, key -> new StepStat());
+        if (isSuccess) {
+            stat.histogram.record((System.nanoTime() - startTime) / 1000);
+        } else {
+            stat.errorCount.increment();
+        }
+    }
+
+    static <T> T step(String name, Supplier<T> action) {
+        long startTime = System.nanoTime();
+        boolean isSuccess = false;
+        try {
+            T result = action.get();
+            isSuccess = true;
+
+            return result;
+        } finally {
+            record(currentFlow.get() + " / " + name, startTime, isSuccess);
+        }
+    }
+
+    private static void runFlow(WebDriver driver, String flowName, Consumer<WebDriver> flow) {
+        currentFlow.set(flowName);
+        long startTime = System.nanoTime();
+        boolean isSuccess = false;
+        try {
+            ProjectUtils.get(driver);
+            flow.accept(driver);
+            isSuccess = true;
+        } catch (Exception e) {
+            ProjectUtils.logf("Flow %s failed: %s", flowName, String.valueOf(e.getMessage()).lines().findFirst().orElse(""));
+        } finally {
+            record(flowName + " (flow)", startTime, isSuccess);
+            currentFlow.remove();
+        }
+    }
+
+    private static void runSession(String url, int index, List<String> flowNameList, long endTime) {
+        ProjectUtils.setUrlOverride(url);
+        WebDriver driver = ProjectUtils.createDriver(ProjectUtils.getLoadBrowser(), ProjectUtils.getLoadProfile());
+        try {
+            driver.manage().timeouts().implicitlyWait(ProjectUtils.IMPLICIT_WAIT);
+            JenkinsUtils.login(driver);
+
+            // Сессии начинают с разных сценариев, чтобы одинаковые шаги не шли одновременно
+            for (int i = index; System.nanoTime() - endTime < 0; i++) {
+                String flowName = flowNameList.get(i % flowNameList.size());
+                runFlow(driver, flowName, LoadFlows.get(flowName));
+            }
+        } finally {
+            driver.quit();
+            ProjectUtils.setUrlOverride(null);
+        }
+    }
+
+    static void run(int sessions, long warmUpNanos, long durationNanos, List<String> flowNameList) {
+        flowNameList.forEach(LoadFlows::get);
+        LoadFlows.prepare();
+        statMap.clear();
+
+        ProjectUtils.logf("Load: %d sessions, flows %s, warm-up %d s, duration %d s", sessions, flowNameList,
+                TimeUnit.NANOSECONDS.toSeconds(warmUpNanos), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+
+        // Сессии идут на тот же Jenkins, где подготовлены данные
+        String url = ProjectUtils.getUrl();
+        long startTime = System.nanoTime();
+        recordStartTime = startTime + warmUpNanos;
+        long endTime = recordStartTime + durationNanos;
+
+        ExecutorService executor = Executors.newFixedThreadPool(sessions);
+        try {
+            List<Future<?>> futureList = new ArrayList<>();
+            for (int i = 0; i < sessions; i++) {
+                int index = i;
+                futureList.add(executor.submit(() -> runSession(url, index, flowNameList, endTime)));
+            }
+            for (Future<?> future : futureList) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    ProjectUtils.log("Load session failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Сценарии дорабатывают после endTime, поэтому пропускная способность считается по фактическому времени
+        writeReport((System.nanoTime() - recordStartTime) / 1e9);
+    }
+
+    private static void writeReport(double seconds) {
+        if (statMap.isEmpty()) {
+            ProjectUtils.log("Load: no steps were recorded");
+            return;
+        }
+
+        StringBuilder csv = new StringBuilder("step,count,errors,per_sec,mean_ms,p50_ms,p95_ms,p99_ms,max_ms\n");
+        ProjectUtils.logf("Load results for %.1f s:", seconds);
+        ProjectUtils.logf("%-60s %7s %6s %8s %9s %9s %9s %9s", "step", "count", "error", "per sec", "p50, ms", "p95, ms", "p99, ms", "max, ms");
+        new TreeMap<>(statMap).forEach((name, stat) -> {
+            LatencyHistogram histogram = stat.histogram;
+            ProjectUtils.logf("%-60s %7d %6d %8.2f %9.1f %9.1f %9.1f %9.1f",
+                    name,
+                    histogram.getCount(),
+                    stat.errorCount.sum(),
+                    histogram.getCount() / seconds,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(95) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMax() / 1000.0);
+            csv.append(String.format(Locale.ROOT, "\"%s\",%d,%d,%.3f,%.1f,%.1f,%.1f,%.1f,%.1f%n",
+                    name,
+                    histogram.getCount(),
+                    stat.errorCount.sum(),
+                    histogram.getCount() / seconds,
+                    histogram.getMean() / 1000.0,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(95) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMax() / 1000.0));
+        });
+
+        try {
+            Files.createDirectories(REPORT_PATH.getParent());
+            Files.writeString(REPORT_PATH, csv, StandardCharsets.UTF_8);
+            ProjectUtils.log("Load results are written to " + REPORT_PATH);
+        } catch (IOException e) {
+            ProjectUtils.log("Couldn't write load results: " + e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) {
+        ProjectUtils.setUrlOverride(ProjectUtils.getLoadUrl());
+        ProjectUtils.log("Load target: " + ProjectUtils.getUrl());
+
+        if (ProjectUtils.isHttpLoad()) {
+            HttpLoadRunner.run(ProjectUtils.getLoadRate(),
+                    ProjectUtils.getLoadMaxInFlight(),
+                    ProjectUtils.getLoadWarmUp().toNanos(),
+                    ProjectUtils.getLoadDuration().toNanos(),
+                    ProjectUtils.getLoadEndpoints());
+            HttpMetrics.writeReport();
+            return;
+        }
+
+        run(ProjectUtils.getLoadSessions(),
+                ProjectUtils.getLoadWarmUp().toNanos(),
+                ProjectUtils.getLoadDuration().toNanos(),
+                ProjectUtils.getLoadFlows());
+    }
+}
@@ -0,0 +1,74 @@
+package school.redrover.runner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class PageLoadStats {
+
+    // Средние прошлых запусков хранятся, чтобы сравнить профиль с запуском в другом профиле
+    private static final Path STATS_PATH = Paths.get("target", "page-load.properties");
+
+    private static final Map<BrowserProfile, LatencyHistogram> histogramMap = new ConcurrentHashMap<>();
+
+    private PageLoadStats() {
+    }
+
+    static void record(BrowserProfile profile, long millis) {
+        histogramMap.computeIfAbsent(profile, key -> new LatencyHistogram()).record(millis);
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        if (Files.exists(STATS_PATH)) {
+            try (Reader reader = Files.newBufferedReader(STATS_PATH)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                ProjectUtils.log("Couldn't read " + STATS_PATH + ": " + e.getMessage());
+            }
+        }
+
+        return properties;
+    }
+
+    private static String getKey(BrowserProfile profile) {
+        return profile.name().toLowerCase() + ".mean";
+    }
+
+    static void writeReport() {
+        if (histogramMap.isEmpty()) {
+            return;
+        }
+
+        Properties properties = load();
+        histogramMap.forEach((profile, histogram) -> {
+            ProjectUtils.logf("Page load (%s profile): %d loads, mean %.0f ms, p50 %d ms, p95 %d ms",
+                    profile.name().toLowerCase(), histogram.getCount(), histogram.getMean(),
+                    histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(95));
+            properties.setProperty(getKey(profile), String.valueOf(Math.round(histogram.getMean())));
+        });
+
+        LatencyHistogram performance = histogramMap.get(BrowserProfile.PERFORMANCE);
+        String defaultMean = properties.getProperty(getKey(BrowserProfile.DEFAULT));
+        if (performance != null && defaultMean != null) {
+            double saved = Double.parseDouble(defaultMean) - performance.getMean();
+            ProjectUtils.logf("Page load time saved by the performance profile: %.0f ms per load (%.0f%%), %.1f sec in total",
+                    saved, saved * 100 / Double.parseDouble(defaultMean), saved * performance.getCount() / 1000);
+        }
+
+        try {
+            Files.createDirectories(STATS_PATH.getParent());
+            try (Writer writer = Files.newBufferedWriter(STATS_PATH)) {
+                properties.store(writer, "Mean page load time by browser profile, ms");
+            }
+        } catch (IOException e) {
+            ProjectUtils.log("Couldn't write " + STATS_PATH + ": " + e.getMessage());
+        }
+    }
+}
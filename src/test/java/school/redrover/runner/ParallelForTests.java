@@ -0,0 +1,21 @@
+package school.redrover.runner;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+public class ParallelForTests implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        int threadCount = ProjectUtils.getThreadCount();
+        if (threadCount > 1) {
+            for (XmlSuite suite : suites) {
+                suite.setParallel(XmlSuite.ParallelMode.CLASSES);
+                suite.setThreadCount(threadCount);
+            }
+            ProjectUtils.logf("Parallel run by classes in %d threads", threadCount);
+        }
+    }
+}
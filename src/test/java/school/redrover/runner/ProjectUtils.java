@@ -1,21 +1,24 @@
 package school.redrover.runner;
 
 import io.github.bonigarcia.wdm.WebDriverManager;
-import org.apache.commons.io.FileUtils;
-import org.openqa.selenium.JavascriptExecutor;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.support.events.EventFiringDecorator;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.IntStream;
 
 
 public final class ProjectUtils {
@@ -25,14 +28,39 @@ public final class ProjectUtils {
     private static final String PROP_PORT = PREFIX_PROP + "port";
     private static final String PROP_ADMIN_USERNAME = PREFIX_PROP + "admin.username";
     private static final String PROP_ADMIN_PAS = PREFIX_PROP + "admin.password";
+    private static final String PROP_THREADS = PREFIX_PROP + "threads";
+    private static final String PROP_DRIVER_MAX_USES = PREFIX_PROP + "driver.max_uses";
+    private static final String PROP_CLEANUP_CONCURRENCY = PREFIX_PROP + "cleanup.concurrency";
+    private static final String PROP_RESET_MODE = PREFIX_PROP + "reset_mode";
+    private static final String PROP_JENKINS_HOME = PREFIX_PROP + "jenkins_home";
+    private static final String PROP_TRACE_COMMANDS = PREFIX_PROP + "trace_commands";
+    private static final String PROP_BLOCKED_HOSTS = PREFIX_PROP + "blocked_hosts";
+    private static final String PROP_LOAD_SESSIONS = PREFIX_PROP + "load.sessions";
+    private static final String PROP_LOAD_DURATION = PREFIX_PROP + "load.duration";
+    private static final String PROP_LOAD_WARM_UP = PREFIX_PROP + "load.warm_up";
+    private static final String PROP_LOAD_FLOWS = PREFIX_PROP + "load.flows";
+    private static final String PROP_LOAD_BROWSER = PREFIX_PROP + "load.browser";
+    private static final String PROP_LOAD_PROFILE = PREFIX_PROP + "load.profile";
+    private static final String PROP_LOAD_MODE = PREFIX_PROP + "load.mode";
+    private static final String PROP_LOAD_RATE = PREFIX_PROP + "load.rate";
+    private static final String PROP_LOAD_MAX_IN_FLIGHT = PREFIX_PROP + "load.max_in_flight";
+    private static final String PROP_LOAD_ENDPOINTS = PREFIX_PROP + "load.endpoints";
+    private static final String PROP_LOAD_URL = PREFIX_PROP + "load.url";
 
     private static final String ENV_CHROME_OPTIONS = "CHROME_OPTIONS";
     private static final String ENV_APP_OPTIONS = "APP_OPTIONS";
 
     private static final String PROP_CHROME_OPTIONS = PREFIX_PROP + ENV_CHROME_OPTIONS.toLowerCase();
 
+    public static final Duration IMPLICIT_WAIT = Duration.ofSeconds(10);
+
     private static Properties properties;
 
+    // Класс тестов берет свободный Jenkins из списка local.port на время своего выполнения,
+    // поэтому два потока никогда не работают с одним Jenkins и clearData() не удаляет чужие данные
+    private static BlockingQueue<Integer> freeWorkerQueue;
+    private static final ThreadLocal<Integer> workerIndex = new ThreadLocal<>();
+
     private static void initProperties() {
         if (properties == null) {
             properties = new Properties();
@@ -48,98 +76,266 @@ public final class ProjectUtils {
             } else {
                 try {
                     InputStream inputStream = ProjectUtils.class.getClassLoader().getResourceAsStream("local.properties");
-                    if (inputStream == null) {
+                    if (inputStream == null && getSystemProperties().isEmpty()) {
                         System.out.println("ERROR: The \u001B[31mlocal.properties\u001B[0m file not found in src/test/resources/ directory.");
                         System.out.println("You need to create it from local.properties.TEMPLATE file.");
                         System.exit(1);
                     }
-                    properties.load(inputStream);
+                    if (inputStream != null) {
+                        properties.load(inputStream);
+                    }
                 } catch (IOException ignore) {
                 }
             }
+
+            // -Dlocal.xxx=... переопределяют значения из файла, так тесты раннера работают и без local.properties
+            properties.putAll(getSystemProperties());
         }
     }
 
-    private static final ChromeOptions chromeOptions;
+    private static Map<String, String> getSystemProperties() {
+        Map<String, String> result = new HashMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(PREFIX_PROP)) {
+                result.put(name, System.getProperty(name));
+            }
+        }
+
+        return result;
+    }
+
+    private static boolean isDriverSetUp;
+
+    private static final ThreadLocal<String> urlOverride = new ThreadLocal<>();
 
     static {
         initProperties();
+    }
 
-        chromeOptions = new ChromeOptions();
-        String options = properties.getProperty(PROP_CHROME_OPTIONS);
-        if (options != null) {
-            for (String argument : options.split(";")) {
-                chromeOptions.addArguments(argument);
-            }
+    private static synchronized void setUpDriver() {
+        if (!isDriverSetUp) {
+            WebDriverManager.chromedriver().setup();
+            isDriverSetUp = true;
         }
-
-        WebDriverManager.chromedriver().setup();
     }
 
     static boolean isServerRun() {
         return System.getenv("CI_RUN") != null;
     }
 
+    private static List<String> getPorts() {
+        return Arrays.stream(properties.getProperty(PROP_PORT).split(","))
+                .map(String::trim)
+                .filter(port -> !port.isEmpty())
+                .toList();
+    }
+
+    static int getThreadCount() {
+        int ports = getPorts().size();
+        String threads = properties.getProperty(PROP_THREADS);
+        if (threads == null) {
+            return ports;
+        }
+
+        int count = Integer.parseInt(threads.trim());
+        if (count > ports) {
+            logf("WARNING: %s=%d is more than the number of Jenkins ports (%d), %d threads will be used",
+                    PROP_THREADS, count, ports, ports);
+            return ports;
+        }
+
+        return Math.max(count, 1);
+    }
+
+    static int getDriverMaxUses() {
+        return Integer.parseInt(properties.getProperty(PROP_DRIVER_MAX_USES, "10").trim());
+    }
+
+    static int getCleanupConcurrency() {
+        return Integer.parseInt(properties.getProperty(PROP_CLEANUP_CONCURRENCY, "8").trim());
+    }
+
+    static boolean isSnapshotReset() {
+        return "snapshot".equalsIgnoreCase(properties.getProperty(PROP_RESET_MODE, "delete").trim());
+    }
+
+    private static synchronized BlockingQueue<Integer> getFreeWorkerQueue() {
+        if (freeWorkerQueue == null) {
+            freeWorkerQueue = new LinkedBlockingQueue<>(IntStream.range(0, getPorts().size()).boxed().toList());
+        }
+
+        return freeWorkerQueue;
+    }
+
+    static void leaseWorker() {
+        if (workerIndex.get() == null) {
+            try {
+                workerIndex.set(getFreeWorkerQueue().take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    static void releaseWorker() {
+        Integer index = workerIndex.get();
+        if (index != null) {
+            workerIndex.remove();
+            getFreeWorkerQueue().add(index);
+        }
+    }
+
+    // Потоки вне тестов (слушатели, main) работают с первым Jenkins
+    private static int getWorkerIndex() {
+        Integer index = workerIndex.get();
+        return index != null ? index : 0;
+    }
+
+    static String getJenkinsHome() {
+        String homes = properties.getProperty(PROP_JENKINS_HOME);
+        if (homes == null) {
+            throw new RuntimeException(String.format("%s is required when %s=snapshot", PROP_JENKINS_HOME, PROP_RESET_MODE));
+        }
+
+        return homes.split(",")[getWorkerIndex()].trim();
+    }
+
+    // Для тестов раннера: запросы текущего потока уходят на другой сервер, например JenkinsStandIn
+    static void setUrlOverride(String url) {
+        if (url == null) {
+            urlOverride.remove();
+        } else {
+            urlOverride.set(url);
+        }
+    }
+
     static String getUrl() {
+        if (urlOverride.get() != null) {
+            return urlOverride.get();
+        }
+
         return String.format("http://%s:%s/",
                 properties.getProperty(PROP_HOST),
-                properties.getProperty(PROP_PORT));
+                getPorts().get(getWorkerIndex()));
     }
 
-    static WebDriver createDriver(String browserName) {
-        switch (browserName) {
-            case "chrome" -> {
-                return new ChromeDriver(chromeOptions);
-            }
-            case "firefox" -> {
-                FirefoxOptions firefoxOptions = new FirefoxOptions();
-                firefoxOptions.addArguments("-headless");
-                return new FirefoxDriver(firefoxOptions);
-            }
-            default -> {
-                return new ChromeDriver(chromeOptions);
-            }
+    static boolean isTraceCommands() {
+        return Boolean.parseBoolean(properties.getProperty(PROP_TRACE_COMMANDS, "false").trim());
+    }
+
+    // Нагрузка идет на один Jenkins: по умолчанию на первый порт из local.port
+    static String getLoadUrl() {
+        String url = properties.getProperty(PROP_LOAD_URL);
+        if (url == null || url.isBlank()) {
+            return String.format("http://%s:%s/", properties.getProperty(PROP_HOST), getPorts().get(0));
         }
+
+        return url.trim().endsWith("/") ? url.trim() : url.trim() + "/";
     }
 
-    public static void get(WebDriver driver) {
-        driver.get(getUrl());
+    static int getLoadSessions() {
+        return Integer.parseInt(properties.getProperty(PROP_LOAD_SESSIONS, "4").trim());
     }
 
-    static String getUserName() {
-        return properties.getProperty(PROP_ADMIN_USERNAME);
+    static Duration getLoadDuration() {
+        return Duration.ofSeconds(Long.parseLong(properties.getProperty(PROP_LOAD_DURATION, "60").trim()));
     }
 
-    static String getPassword() {
-        return properties.getProperty(PROP_ADMIN_PAS);
+    static Duration getLoadWarmUp() {
+        return Duration.ofSeconds(Long.parseLong(properties.getProperty(PROP_LOAD_WARM_UP, "10").trim()));
+    }
+
+    static List<String> getLoadFlows() {
+        return Arrays.stream(properties.getProperty(PROP_LOAD_FLOWS, String.join(",", LoadFlows.NAME_LIST)).split(","))
+                .map(String::trim)
+                .filter(flow -> !flow.isEmpty())
+                .toList();
+    }
+
+    static String getLoadBrowser() {
+        return properties.getProperty(PROP_LOAD_BROWSER, "chrome").trim();
+    }
+
+    static BrowserProfile getLoadProfile() {
+        return BrowserProfile.of(properties.getProperty(PROP_LOAD_PROFILE, "performance"));
+    }
+
+    static boolean isHttpLoad() {
+        return "http".equalsIgnoreCase(properties.getProperty(PROP_LOAD_MODE, "browser").trim());
+    }
+
+    static double getLoadRate() {
+        return Double.parseDouble(properties.getProperty(PROP_LOAD_RATE, "20").trim());
+    }
+
+    static int getLoadMaxInFlight() {
+        return Integer.parseInt(properties.getProperty(PROP_LOAD_MAX_IN_FLIGHT, "256").trim());
     }
 
-    static File takeScreenshot(WebDriver driver, String methodName, String className) {
-        File file = ((TakesScreenshot)driver).getScreenshotAs(OutputType.FILE);
-        try {
-            FileUtils.copyFile(file, new File(String.format("screenshots/%s.%s.png", className, methodName)));
-        } catch (IOException e) {
-            e.printStackTrace();
+    static List<String> getLoadEndpoints() {
+        return Arrays.stream(properties.getProperty(PROP_LOAD_ENDPOINTS, String.join(",", HttpLoadRunner.ENDPOINT_LIST)).split(","))
+                .map(String::trim)
+                .filter(endpoint -> !endpoint.isEmpty())
+                .toList();
+    }
+
+    private static List<String> getBlockedHosts() {
+        return Arrays.stream(properties.getProperty(PROP_BLOCKED_HOSTS, "jenkins.io,github.com,githubusercontent.com").split(","))
+                .map(String::trim)
+                .filter(host -> !host.isEmpty())
+                .toList();
+    }
+
+    private static ChromeOptions createChromeOptions(BrowserProfile profile) {
+        ChromeOptions chromeOptions = new ChromeOptions();
+        String options = properties.getProperty(PROP_CHROME_OPTIONS);
+        if (options != null) {
+            for (String argument : options.split(";")) {
+                chromeOptions.addArguments(argument);
+            }
         }
-        return file;
+        profile.apply(chromeOptions, getBlockedHosts());
+
+        return chromeOptions;
     }
 
-    static void captureDOM(WebDriver driver, String methodName, String className) {
+    private static FirefoxOptions createFirefoxOptions(BrowserProfile profile) {
+        FirefoxOptions firefoxOptions = new FirefoxOptions();
+        firefoxOptions.addArguments("-headless");
+        profile.apply(firefoxOptions, getBlockedHosts());
 
-        String domFileName = String.format("screenshots/%s.%s.html", className, methodName);
+        return firefoxOptions;
+    }
+
+    static WebDriver createDriver(String browserName, BrowserProfile profile) {
+        setUpDriver();
 
-        JavascriptExecutor js = (JavascriptExecutor) driver;
-        String script = "return document.body.innerHTML;";
-        String dom = js.executeScript(script).toString();
+        WebDriver driver = switch (browserName) {
+            case "chrome" -> new ChromeDriver(createChromeOptions(profile));
+            case "firefox" -> new FirefoxDriver(createFirefoxOptions(profile));
+            default -> new ChromeDriver(createChromeOptions(profile));
+        };
 
-        try (FileWriter writer = new FileWriter(domFileName)) {
-            writer.append(dom);
-            writer.flush();
-            writer.close();
-            log("DOM file is generated: " + domFileName);
-        } catch (IOException ioException) {
-            ioException.printStackTrace();
+        if (isTraceCommands()) {
+            return new EventFiringDecorator<>(new CommandTracer()).decorate(driver);
         }
+
+        return driver;
+    }
+
+    public static void get(WebDriver driver) {
+        long startTime = System.currentTimeMillis();
+        driver.get(getUrl());
+        PageLoadStats.record(DriverPool.getProfile(driver), System.currentTimeMillis() - startTime);
+    }
+
+    static String getUserName() {
+        return properties.getProperty(PROP_ADMIN_USERNAME);
+    }
+
+    static String getPassword() {
+        return properties.getProperty(PROP_ADMIN_PAS);
     }
 
     public static void log(String str) {
@@ -0,0 +1,36 @@
+package school.redrover.runner;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.model.Parameter;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.DeclarePrecedence;
+
+import java.util.Locale;
+
+@Aspect
+@DeclarePrecedence("io.qameta.allure.aspects.StepsAspects, school.redrover.runner.StepTimingAspect")
+public class StepTimingAspect {
+
+    @Around("execution(@io.qameta.allure.Step * *(..))")
+    public Object aroundStep(ProceedingJoinPoint joinPoint) throws Throwable {
+        final long startTime = System.nanoTime();
+        StepTimings.enterStep();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            final long waitNanos = StepTimings.exitStep();
+            final long totalNanos = System.nanoTime() - startTime;
+
+            StepTimings.record(
+                    joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName(),
+                    totalNanos, waitNanos);
+
+            // Шаг Allure уже открыт: StepsAspects выполняется снаружи этого аспекта
+            Allure.getLifecycle().updateStep(step -> step.getParameters().add(new Parameter()
+                    .setName("duration (wait), ms")
+                    .setValue(String.format(Locale.ROOT, "%.1f (%.1f)", totalNanos / 1e6, waitNanos / 1e6))));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package school.redrover.runner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+public final class StepTimings {
+
+    private static final Path REPORT_PATH = Paths.get("target", "step-timings.json");
+
+    private static final class StepStat {
+        private final LatencyHistogram totalHistogram = new LatencyHistogram();
+        private final LatencyHistogram waitHistogram = new LatencyHistogram();
+    }
+
+    private static final Map<String, StepStat> statMap = new ConcurrentHashMap<>();
+
+    // Для каждого вложенного шага хранится время, проведенное в ожиданиях WebDriverWait
+    private static final ThreadLocal<Deque<long[]>> waitStack = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private StepTimings() {
+    }
+
+    static void enterStep() {
+        waitStack.get().push(new long[1]);
+    }
+
+    static long exitStep() {
+        Deque<long[]> stack = waitStack.get();
+        long waitNanos = stack.pop()[0];
+        if (!stack.isEmpty()) {
+            stack.peek()[0] += waitNanos;
+        }
+
+        return waitNanos;
+    }
+
+    public static void addWaitTime(long nanos) {
+        Deque<long[]> stack = waitStack.get();
+        if (!stack.isEmpty()) {
+            stack.peek()[0] += nanos;
+        }
+    }
+
+    static void record(String stepName, long totalNanos, long waitNanos) {
+        StepStat stat = statMap.computeIfAbsent(stepName, key -> new StepStat());
+        stat.totalHistogram.record(totalNanos / 1000);
+        stat.waitHistogram.record(waitNanos / 1000);
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String toMillis(long micros) {
+        return String.format(Locale.ROOT, "%.3f", micros / 1000.0);
+    }
+
+    static void writeReport() {
+        if (statMap.isEmpty()) {
+            return;
+        }
+
+        StringBuilder json = new StringBuilder("[\n");
+        new TreeMap<>(statMap).forEach((name, stat) -> {
+            LatencyHistogram total = stat.totalHistogram;
+            json.append(String.format("  {\"step\": \"%s\", \"count\": %d, \"totalMs\": %s, \"waitMs\": %s, "
+                            + "\"meanMs\": %s, \"p50Ms\": %s, \"p90Ms\": %s, \"p99Ms\": %s, \"maxMs\": %s, \"histogram\": [",
+                    escapeJson(name), total.getCount(), toMillis(total.getTotal()), toMillis(stat.waitHistogram.getTotal()),
+                    toMillis((long) total.getMean()), toMillis(total.getValueAtPercentile(50)),
+                    toMillis(total.getValueAtPercentile(90)), toMillis(total.getValueAtPercentile(99)), toMillis(total.getMax())));
+            json.append(total.getBuckets().stream()
+                    .map(bucket -> String.format("{\"upToMs\": %s, \"count\": %d}", toMillis(bucket.upperValue()), bucket.count()))
+                    .collect(Collectors.joining(", ")));
+            json.append("]},\n");
+        });
+        json.setLength(json.length() - 2);
+        json.append("\n]\n");
+
+        try {
+            Files.createDirectories(REPORT_PATH.getParent());
+            Files.writeString(REPORT_PATH, json, StandardCharsets.UTF_8);
+            ProjectUtils.log("Step timings are written to " + REPORT_PATH);
+        } catch (IOException e) {
+            ProjectUtils.log("Couldn't write step timings: " + e.getMessage());
+        }
+    }
+}
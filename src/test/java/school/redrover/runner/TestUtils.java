@@ -161,13 +161,42 @@ public class TestUtils {
         }
     }
 
-    public static List<String> getTexts(List<WebElement> elements) {
-        List<String> texts = new ArrayList<>();
+    public static void createJobByApi(BaseTest baseTest, String name, JobType jobType, Boolean goToMainPage) {
+        JenkinsUtils.createJob(name, jobType);
 
-        for (WebElement element : elements) {
-            texts.add(element.getText());
+        if (goToMainPage) {
+            ProjectUtils.get(baseTest.getDriver());
+        } else {
+            baseTest.getDriver().get(String.format("%sjob/%s/", ProjectUtils.getUrl(), JenkinsUtils.encodePath(name)));
         }
-        return texts;
+    }
+
+    public static void createJobInFolderByApi(BaseTest baseTest, String folderName, String name, JobType jobType) {
+        JenkinsUtils.createJob(name, jobType, folderName);
+
+        ProjectUtils.get(baseTest.getDriver());
+    }
+
+    public static void createViewByApi(BaseTest baseTest, String name, ViewType viewType) {
+        JenkinsUtils.createView(name, viewType);
+
+        ProjectUtils.get(baseTest.getDriver());
+    }
+
+    public static void createUserByApi(BaseTest baseTest, String username, String password, String fullName, String email) {
+        JenkinsUtils.createUser(username, password, fullName, email);
+
+        ProjectUtils.get(baseTest.getDriver());
+    }
+
+    public static void createNodeByApi(BaseTest baseTest, String nodeName) {
+        JenkinsUtils.createNode(nodeName);
+
+        ProjectUtils.get(baseTest.getDriver());
+    }
+
+    public static List<String> getTexts(List<WebElement> elements) {
+        return new ArrayList<>(DomReader.getTexts(elements));
     }
 
     public static void sendTextToInput(BaseModel baseModel, WebElement element, String text) {
@@ -3,15 +3,27 @@ package school.redrover.runner.order;
 import org.testng.IMethodInstance;
 import org.testng.IMethodInterceptor;
 import org.testng.ITestContext;
+import school.redrover.runner.DurationStore;
 
 import java.util.List;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 public class OrderForTests implements IMethodInterceptor {
 
     @Override
     public List<IMethodInstance> intercept(List<IMethodInstance> list, ITestContext iTestContext) {
-        return OrderUtils.orderMethods(list, m -> m.getMethod().getQualifiedName(), m -> m.getMethod().getMethodsDependedUpon())
-                .stream().flatMap(List::stream).collect(Collectors.toList());
+        List<List<IMethodInstance>> groupList = OrderUtils.orderMethods(
+                list, m -> m.getMethod().getQualifiedName(), m -> m.getMethod().getMethodsDependedUpon());
+
+        if (!DurationStore.isEmpty()) {
+            final long defaultCost = DurationStore.getAverageMethodCost();
+            ToLongFunction<IMethodInstance> costFunction =
+                    m -> DurationStore.getMethodCost(m.getMethod().getQualifiedName(), defaultCost);
+
+            groupList = OrderUtils.sortLongestFirst(groupList, costFunction, m -> m.getMethod().getRealClass());
+        }
+
+        return groupList.stream().flatMap(List::stream).collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.testng.annotations.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class OrderForTestsTest {
@@ -180,4 +181,106 @@ public class OrderForTestsTest {
 
         Assert.assertEquals(result, expectedList);
     }
+
+    @Test
+    public void orderMethodsLongChainTest() {
+        final int size = 100_000;
+        final List<Item> sourceList = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            sourceList.add(new Item("method" + i, i == size - 1 ? new String[0] : new String[]{"method" + (i + 1)}));
+        }
+
+        List<List<Item>> result = OrderUtils.orderMethods(sourceList,
+                (Item item) -> item.name,
+                (Item item) -> item.dependencies);
+
+        Assert.assertEquals(result.size(), 1);
+        Assert.assertEquals(result.get(0).size(), size);
+        for (int i = 0; i < size; i++) {
+            Assert.assertSame(result.get(0).get(i), sourceList.get(size - 1 - i));
+        }
+    }
+
+    @Test
+    public void sortLongestFirstTest() {
+        final Item one = new Item("A.one");
+        final Item two = new Item("A.two", "A.one");
+        final Item three = new Item("A.three");
+        final Item four = new Item("B.four");
+        final Item five = new Item("C.five");
+        final Map<Item, Long> costMap = Map.of(one, 1L, two, 1L, three, 5L, four, 10L, five, 1L);
+
+        List<List<Item>> result = OrderUtils.sortLongestFirst(
+                List.of(List.of(one, two), List.of(three), List.of(four), List.of(five)),
+                costMap::get,
+                (Item item) -> item.name.substring(0, 1));
+
+        Assert.assertEquals(result, List.of(
+                List.of(four),
+                List.of(three),
+                List.of(one, two),
+                List.of(five)));
+    }
+
+    @Test
+    public void packGroupsTest() {
+        final Item one = new Item("1. one");
+        final Item two = new Item("2. two");
+        final Item three = new Item("3. three");
+        final Item four = new Item("4. four");
+        final Item five = new Item("5. five");
+        final Map<Item, Long> costMap = Map.of(one, 7L, two, 5L, three, 4L, four, 3L, five, 1L);
+
+        List<List<List<Item>>> result = OrderUtils.packGroups(
+                List.of(List.of(one), List.of(two), List.of(three), List.of(four), List.of(five)),
+                costMap::get,
+                2);
+
+        Assert.assertEquals(result, List.of(
+                List.of(List.of(one), List.of(four)),
+                List.of(List.of(two), List.of(three), List.of(five))));
+    }
+
+    @Test
+    public void methodsOrderTest() {
+        final Item one = new Item("1. one");
+        final Item two = new Item("2. two", "1. one");
+        final Item three = new Item("3. three");
+
+        OrderUtils.MethodsOrder<Item> methodsOrder = OrderUtils.createMethodsOrder(
+                List.of(one, two, three),
+                (Item item) -> item.name,
+                (Item item) -> item.dependencies);
+
+        Assert.assertFalse(methodsOrder.isGroupStarted(two));
+        Assert.assertFalse(methodsOrder.markAsInvoked(one));
+        Assert.assertTrue(methodsOrder.markAsInvoked(one));
+        Assert.assertTrue(methodsOrder.isGroupStarted(two));
+        Assert.assertFalse(methodsOrder.isGroupFinished(two));
+        Assert.assertFalse(methodsOrder.isGroupStarted(three));
+
+        Assert.assertFalse(methodsOrder.markAsInvoked(two));
+        Assert.assertTrue(methodsOrder.isGroupFinished(one));
+        Assert.assertTrue(methodsOrder.isInvoked(two));
+        Assert.assertFalse(methodsOrder.isInvoked(three));
+    }
+
+    @Test
+    public void methodsOrderParallelTest() {
+        final List<Item> sourceList = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            sourceList.add(new Item("method" + i, i % 100 == 0 ? new String[0] : new String[]{"method" + (i - 1)}));
+        }
+
+        OrderUtils.MethodsOrder<Item> methodsOrder = OrderUtils.createMethodsOrder(sourceList,
+                (Item item) -> item.name,
+                (Item item) -> item.dependencies);
+
+        sourceList.parallelStream().forEach(methodsOrder::markAsInvoked);
+        sourceList.parallelStream().forEach(methodsOrder::markAsInvoked);
+
+        for (Item item : sourceList) {
+            Assert.assertTrue(methodsOrder.isGroupFinished(item));
+        }
+    }
 }
@@ -1,88 +1,237 @@
 package school.redrover.runner.order;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 public final class OrderUtils {
 
-    private static <T> void orderMethod(
-            T currentMethod, Map<String, T> methodMap, Map<String, Set<T>> dependedMap, Set<T> usedSet,
-            List<T> destinationList, Function<T, String> getNameFunction, Function<T, String[]> getDependencyFunction) {
-        usedSet.add(currentMethod);
+    private static int find(int[] parentArray, int index) {
+        while (parentArray[index] != index) {
+            parentArray[index] = parentArray[parentArray[index]];
+            index = parentArray[index];
+        }
 
-        for (String methodName : getDependencyFunction.apply(currentMethod)) {
-            methodMap.computeIfPresent(methodName, (k, method) -> {
-                if (!usedSet.contains(method)) {
-                    orderMethod(method, methodMap, dependedMap, usedSet, destinationList,
-                            getNameFunction, getDependencyFunction);
-                }
+        return index;
+    }
 
-                return method;
-            });
+    private static void union(int[] parentArray, int[] sizeArray, int first, int second) {
+        first = find(parentArray, first);
+        second = find(parentArray, second);
+        if (first != second) {
+            if (sizeArray[first] < sizeArray[second]) {
+                int temp = first;
+                first = second;
+                second = temp;
+            }
+            parentArray[second] = first;
+            sizeArray[first] += sizeArray[second];
         }
+    }
 
-        destinationList.add(currentMethod);
-
-        dependedMap.computeIfPresent(getNameFunction.apply(currentMethod), (k, v) -> {
-            for (T method : v) {
-                if (!usedSet.contains(method)) {
-                    orderMethod(method, methodMap, dependedMap, usedSet, destinationList,
-                            getNameFunction, getDependencyFunction);
+    // Цикл разрываем так же, как это делал рекурсивный обход: идем по зависимостям от самого раннего
+    // оставшегося метода, пока не вернемся в уже пройденный, и выпускаем последний метод на этом пути
+    private static int findCycleBreak(int start, int[][] dependencyArray, boolean[] queuedArray) {
+        Set<Integer> pathSet = new HashSet<>();
+        int current = start;
+        while (pathSet.add(current)) {
+            int next = -1;
+            for (int dependency : dependencyArray[current]) {
+                if (!queuedArray[dependency]) {
+                    next = dependency;
+                    break;
                 }
             }
+            if (next == -1 || pathSet.contains(next)) {
+                break;
+            }
+            current = next;
+        }
 
-            return v;
-        });
+        return current;
     }
 
     static <T> List<List<T>> orderMethods(
             List<T> sourceList, Function<T, String> getNameFunction, Function<T, String[]> getDependencyFunction) {
 
-        Map<String, Set<T>> dependedMap = new HashMap<>();
-        for (T method : sourceList) {
-            for (String dependedName : getDependencyFunction.apply(method)) {
-                dependedMap.computeIfAbsent(dependedName, key -> new HashSet<>()).add(method);
+        int size = sourceList.size();
+        Map<String, Integer> indexMap = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String name = getNameFunction.apply(sourceList.get(i));
+            if (indexMap.put(name, i) != null) {
+                throw new IllegalStateException("Duplicate key " + name);
+            }
+        }
+
+        // Группы - компоненты связности графа зависимостей (union-find)
+        int[] parentArray = new int[size];
+        int[] sizeArray = new int[size];
+        int[][] dependencyArray = new int[size][];
+        int[] dependedCount = new int[size];
+        for (int i = 0; i < size; i++) {
+            parentArray[i] = i;
+            sizeArray[i] = 1;
+        }
+        for (int i = 0; i < size; i++) {
+            dependencyArray[i] = Arrays.stream(getDependencyFunction.apply(sourceList.get(i)))
+                    .map(indexMap::get)
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            for (int dependency : dependencyArray[i]) {
+                union(parentArray, sizeArray, i, dependency);
+                dependedCount[dependency]++;
+            }
+        }
+
+        int[][] dependedArray = new int[size][];
+        for (int i = 0; i < size; i++) {
+            dependedArray[i] = new int[dependedCount[i]];
+            dependedCount[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int dependency : dependencyArray[i]) {
+                dependedArray[dependency][dependedCount[dependency]++] = i;
             }
         }
-        Map<String, T> methodMap = sourceList.stream().collect(Collectors.toMap(getNameFunction, Function.identity()));
-        Set<T> usedSet = new HashSet<>();
+
+        Map<Integer, List<Integer>> groupMap = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            groupMap.computeIfAbsent(find(parentArray, i), key -> new ArrayList<>()).add(i);
+        }
+
+        // Внутри группы - алгоритм Кана с очередью FIFO, методы без зависимостей идут в порядке исходного списка
+        int[] inDegreeArray = new int[size];
+        for (int i = 0; i < size; i++) {
+            inDegreeArray[i] = dependencyArray[i].length;
+        }
+        boolean[] queuedArray = new boolean[size];
         List<List<T>> resultList = new ArrayList<>();
 
-        for (T method : sourceList) {
-            if (!usedSet.contains(method)) {
-                List<T> destinationList = new ArrayList<>();
-                resultList.add(destinationList);
+        for (List<Integer> group : groupMap.values()) {
+            List<T> destinationList = new ArrayList<>(group.size());
+            resultList.add(destinationList);
+
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int index : group) {
+                if (inDegreeArray[index] == 0) {
+                    queuedArray[index] = true;
+                    queue.add(index);
+                }
+            }
+
+            int cursor = 0;
+            while (destinationList.size() < group.size()) {
+                if (queue.isEmpty()) {
+                    while (queuedArray[group.get(cursor)]) {
+                        cursor++;
+                    }
+                    int index = findCycleBreak(group.get(cursor), dependencyArray, queuedArray);
+                    queuedArray[index] = true;
+                    queue.add(index);
+                }
 
-                orderMethod(method, methodMap, dependedMap, usedSet, destinationList,
-                        getNameFunction, getDependencyFunction);
+                int index = queue.poll();
+                destinationList.add(sourceList.get(index));
+                for (int depended : dependedArray[index]) {
+                    if (--inDegreeArray[depended] == 0 && !queuedArray[depended]) {
+                        queuedArray[depended] = true;
+                        queue.add(depended);
+                    }
+                }
             }
         }
 
         return resultList;
     }
 
+    static <T> long getGroupCost(List<T> groupList, ToLongFunction<T> costFunction) {
+        return groupList.stream().mapToLong(costFunction).sum();
+    }
+
+    static <T> List<List<T>> sortLongestFirst(
+            List<List<T>> groupList, ToLongFunction<T> costFunction, Function<T, ?> getBlockFunction) {
+
+        // Группы одного блока (класса) остаются рядом, т.к. блок выполняется одним потоком целиком
+        Map<Object, List<List<T>>> blockMap = new LinkedHashMap<>();
+        for (List<T> group : groupList) {
+            blockMap.computeIfAbsent(getBlockFunction.apply(group.get(0)), key -> new ArrayList<>()).add(group);
+        }
+
+        Comparator<List<T>> groupComparator = Comparator.comparingLong(group -> -getGroupCost(group, costFunction));
+        List<List<List<T>>> blockList = new ArrayList<>(blockMap.values());
+        for (List<List<T>> block : blockList) {
+            block.sort(groupComparator);
+        }
+        blockList.sort(Comparator.comparingLong(block -> -block.stream().mapToLong(group -> getGroupCost(group, costFunction)).sum()));
+
+        return blockList.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    static <T> List<List<List<T>>> packGroups(List<List<T>> groupList, ToLongFunction<T> costFunction, int workerCount) {
+        List<List<List<T>>> workerList = new ArrayList<>();
+        long[] workerCost = new long[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workerList.add(new ArrayList<>());
+        }
+
+        List<List<T>> sortedList = new ArrayList<>(groupList);
+        sortedList.sort(Comparator.comparingLong(group -> -getGroupCost(group, costFunction)));
+        for (List<T> group : sortedList) {
+            int worker = 0;
+            for (int i = 1; i < workerCount; i++) {
+                if (workerCost[i] < workerCost[worker]) {
+                    worker = i;
+                }
+            }
+
+            workerList.get(worker).add(group);
+            workerCost[worker] += getGroupCost(group, costFunction);
+        }
+
+        return workerList;
+    }
+
     public abstract static class MethodsOrder<T> {
 
+        private static final class Group<T> {
+            private final List<T> list;
+            private final AtomicInteger invokedCount = new AtomicInteger();
+
+            private Group(List<T> list) {
+                this.list = list;
+            }
+        }
+
+        // Счетчик вызванных методов группы меняется в markAsInvoked, поэтому проверки группы - O(1)
         private final Map<T, Boolean> methodInvokedMap;
-        private final Map<T, List<T>> methodListMap;
+        private final Map<T, Group<T>> methodGroupMap;
         private final List<List<T>> methodList;
 
         public MethodsOrder(List<List<T>> methodList) {
             this.methodList = methodList;
-            this.methodInvokedMap = new HashMap<>();
-            this.methodListMap = new HashMap<>();
+            this.methodInvokedMap = new ConcurrentHashMap<>();
+            this.methodGroupMap = new HashMap<>();
 
             for (List<T> list : methodList) {
+                Group<T> group = new Group<>(list);
                 for (T method : list) {
                     methodInvokedMap.put(method, false);
-                    methodListMap.put(method, list);
+                    methodGroupMap.put(method, group);
                 }
             }
         }
 
         public boolean markAsInvoked(T method) {
-            return Boolean.TRUE.equals(this.methodInvokedMap.put(method, true));
+            if (this.methodInvokedMap.replace(method, false, true)) {
+                this.methodGroupMap.get(method).invokedCount.incrementAndGet();
+                return false;
+            }
+
+            return this.methodInvokedMap.putIfAbsent(method, true) != null;
         }
 
         public boolean isInvoked(T method) {
@@ -90,27 +239,17 @@ public final class OrderUtils {
         }
 
         public List<T> getGroupList(T method) {
-            return new ArrayList<>(this.methodListMap.get(method));
+            return new ArrayList<>(this.methodGroupMap.get(method).list);
         }
 
         public boolean isGroupFinished(T method) {
-            for (T _method : getGroupList(method)) {
-                if (!isInvoked(_method)) {
-                    return false;
-                }
-            }
+            Group<T> group = this.methodGroupMap.get(method);
 
-            return true;
+            return group.invokedCount.get() == group.list.size();
         }
 
         public boolean isGroupStarted(T method) {
-            for (T _method : getGroupList(method)) {
-                if (isInvoked(_method)) {
-                    return true;
-                }
-            }
-
-            return false;
+            return this.methodGroupMap.get(method).invokedCount.get() > 0;
         }
 
         public List<T> getFlatList() {
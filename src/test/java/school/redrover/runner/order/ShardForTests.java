@@ -0,0 +1,80 @@
+package school.redrover.runner.order;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import school.redrover.runner.DurationStore;
+import school.redrover.runner.ProjectUtils;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+public class ShardForTests implements IMethodInterceptor {
+
+    private static <T> String getGroupKey(List<T> group, Function<T, String> getNameFunction) {
+        return group.stream().map(getNameFunction).min(Comparator.naturalOrder()).orElse("");
+    }
+
+    static <T> List<List<T>> selectShard(
+            List<List<T>> groupList, Function<T, String> getNameFunction, ToLongFunction<T> costFunction,
+            int shardIndex, int shardCount) {
+
+        // Порядок групп не должен зависеть от порядка методов, иначе разные узлы разобьют набор по-разному
+        List<List<T>> sortedList = new ArrayList<>(groupList);
+        sortedList.sort(Comparator.comparing(group -> getGroupKey(group, getNameFunction)));
+
+        if (costFunction == null) {
+            return sortedList.stream()
+                    .filter(group -> Math.floorMod(getGroupKey(group, getNameFunction).hashCode(), shardCount) == shardIndex)
+                    .collect(Collectors.toList());
+        }
+
+        return OrderUtils.packGroups(sortedList, costFunction, shardCount).get(shardIndex);
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> list, ITestContext iTestContext) {
+        String shardCount = System.getenv("SHARD_COUNT");
+        String shardIndex = System.getenv("SHARD_INDEX");
+        if (shardCount == null || shardIndex == null) {
+            return list;
+        }
+
+        int count = Integer.parseInt(shardCount.trim());
+        int index = Integer.parseInt(shardIndex.trim());
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException(String.format("Wrong shard %s of %s", shardIndex, shardCount));
+        }
+
+        // Локальная история у каждого узла своя, и узлы разбили бы набор по-разному.
+        // По длительностям делим только с общим для всех узлов файлом, иначе по стабильному хешу
+        ToLongFunction<IMethodInstance> costFunction = null;
+        String history = System.getProperty("shard.history");
+        if (history != null && !history.isBlank()) {
+            Map<String, Long> costMap = DurationStore.loadMethodCosts(Paths.get(history.trim()));
+            if (!costMap.isEmpty()) {
+                final long defaultCost = (long) costMap.values().stream().mapToLong(Long::longValue).average().orElse(0);
+                costFunction = m -> costMap.getOrDefault(m.getMethod().getQualifiedName(), defaultCost);
+            }
+        }
+
+        List<IMethodInstance> result = selectShard(
+                OrderUtils.orderMethods(list, m -> m.getMethod().getQualifiedName(), m -> m.getMethod().getMethodsDependedUpon()),
+                m -> m.getMethod().getQualifiedName(),
+                costFunction,
+                index,
+                count)
+                .stream().flatMap(List::stream).collect(Collectors.toList());
+
+        ProjectUtils.logf("Shard %d of %d: %d of %d tests, split by %s", index, count, result.size(), list.size(),
+                costFunction == null ? "hash" : "durations from " + history.trim());
+
+        return result;
+    }
+}
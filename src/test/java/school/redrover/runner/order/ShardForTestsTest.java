@@ -0,0 +1,67 @@
+package school.redrover.runner.order;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+public class ShardForTestsTest {
+
+    private static List<List<String>> createGroupList() {
+        List<List<String>> groupList = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            List<String> group = new ArrayList<>();
+            for (int j = 0; j <= i % 4; j++) {
+                group.add(String.format("Class%d.method%d", i % 7, i * 10 + j));
+            }
+            groupList.add(group);
+        }
+
+        return groupList;
+    }
+
+    private static void assertShards(List<List<String>> groupList, ToLongFunction<String> costFunction, int shardCount) {
+        Set<String> expectedSet = new HashSet<>();
+        groupList.forEach(expectedSet::addAll);
+
+        Set<String> resultSet = new HashSet<>();
+        int resultCount = 0;
+        for (int i = 0; i < shardCount; i++) {
+            for (List<String> group : ShardForTests.selectShard(groupList, name -> name, costFunction, i, shardCount)) {
+                resultSet.addAll(group);
+                resultCount += group.size();
+            }
+        }
+
+        Assert.assertEquals(resultSet, expectedSet);
+        Assert.assertEquals(resultCount, expectedSet.size());
+    }
+
+    @Test
+    public void selectShardByHashTest() {
+        assertShards(createGroupList(), null, 3);
+    }
+
+    @Test
+    public void selectShardByDurationTest() {
+        assertShards(createGroupList(), name -> name.length() * 100L, 4);
+    }
+
+    @Test
+    public void selectShardDoesNotDependOnOrderTest() {
+        List<List<String>> groupList = createGroupList();
+        List<List<String>> reversedList = new ArrayList<>(groupList);
+        Collections.reverse(reversedList);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(
+                    new HashSet<>(ShardForTests.selectShard(groupList, name -> name, String::length, i, 3)),
+                    new HashSet<>(ShardForTests.selectShard(reversedList, name -> name, String::length, i, 3)));
+        }
+    }
+}